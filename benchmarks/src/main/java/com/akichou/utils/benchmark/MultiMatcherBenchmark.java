@@ -0,0 +1,94 @@
+package com.akichou.utils.benchmark;
+
+import com.akichou.utils.util.AkiMultiMatcher;
+import com.akichou.utils.util.AkiStringUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One AkiMultiMatcher pass against a countMatch / contains loop over the keywords, on a 4 KB text.
+ * The keywords ("k17z") are never part of each other, so both sides count the same matches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiMatcherBenchmark {
+
+    private static final int TEXT_LENGTH = 4096 ;
+
+    @Param({ "10", "100", "1000" })
+    public int patternCount ;
+
+    private String[] keywords ;
+    private String text ;
+    private String textWithoutKeywords ;
+    private AkiMultiMatcher matcher ;
+
+    @Setup
+    public void setUp() {
+
+        keywords = new String[patternCount] ;
+        for (int i = 0 ; i < patternCount ; i ++) keywords[i] = "k" + i + "z" ;
+
+        Random random = new Random(42) ;
+
+        StringBuilder stringBuilder = new StringBuilder(TEXT_LENGTH) ;
+        while (stringBuilder.length() < TEXT_LENGTH) {
+
+            stringBuilder.append(random.nextInt(8) == 0 ? keywords[random.nextInt(patternCount)] : "lorem ipsum") ;
+            stringBuilder.append(' ') ;
+        }
+
+        text = stringBuilder.toString() ;
+        textWithoutKeywords = "lorem ipsum ".repeat(TEXT_LENGTH / 12) ;
+        matcher = AkiMultiMatcher.of(keywords) ;
+    }
+
+    @Benchmark
+    public int matcherCount() {
+
+        return matcher.count(text) ;
+    }
+
+    @Benchmark
+    public int loopCount() {
+
+        int count = 0 ;
+        for (String keyword : keywords) count += AkiStringUtil.countMatch(text, keyword) ;
+
+        return count ;
+    }
+
+    // No match : every keyword is searched for over the whole text
+    @Benchmark
+    public boolean matcherContainsAny() {
+
+        return matcher.containsAny(textWithoutKeywords) ;
+    }
+
+    @Benchmark
+    public boolean loopContains() {
+
+        for (String keyword : keywords) {
+
+            if (AkiStringUtil.contains(textWithoutKeywords, keyword)) return true ;
+        }
+
+        return false ;
+    }
+}
@@ -0,0 +1,144 @@
+package com.akichou.utils.benchmark;
+
+import com.akichou.utils.util.AkiSplitter;
+import com.akichou.utils.util.AkiStringUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * AkiSplitter and splitBy against the splitBy of 1.0.2 and String.split, on one delimited record.
+ * Run with -prof gc to compare the allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SplitBenchmark {
+
+    private static final int LIMIT = 3 ;
+
+    @Param({ ",", "||" })
+    public String separator ;
+
+    @Param({ "20", "200" })
+    public int fieldCount ;
+
+    private String record ;
+    private String quotedSeparator ;
+    private AkiSplitter splitter ;
+    private AkiSplitter limitedSplitter ;
+
+    @Setup
+    public void setUp() {
+
+        StringBuilder stringBuilder = new StringBuilder() ;
+        for (int i = 0 ; i < fieldCount ; i ++) {
+
+            if (i > 0) stringBuilder.append(separator) ;
+            stringBuilder.append("field").append(i) ;
+        }
+
+        record = stringBuilder.toString() ;
+        quotedSeparator = Pattern.quote(separator) ;
+        splitter = AkiSplitter.on(separator) ;
+        limitedSplitter = splitter.limit(LIMIT) ;
+    }
+
+    @Benchmark
+    public String[] baselineSplitBy() {
+
+        return BaselineSplit.splitBy(record, separator) ;
+    }
+
+    @Benchmark
+    public String[] splitBy() {
+
+        return AkiStringUtil.splitBy(record, separator) ;
+    }
+
+    @Benchmark
+    public String[] stringSplit() {
+
+        return record.split(quotedSeparator) ;
+    }
+
+    @Benchmark
+    public String[] splitterToArray() {
+
+        return splitter.splitToArray(record) ;
+    }
+
+    @Benchmark
+    public int splitterRanges() {
+
+        return splitter.split(record, (input, start, end) -> {}) ;
+    }
+
+    @Benchmark
+    public String[] baselineSplitByLimit() {
+
+        return BaselineSplit.splitBy(record, separator, LIMIT) ;
+    }
+
+    @Benchmark
+    public String[] splitByLimit() {
+
+        return AkiStringUtil.splitBy(record, separator, LIMIT) ;
+    }
+
+    @Benchmark
+    public int splitterRangesLimit() {
+
+        return limitedSplitter.split(record, (input, start, end) -> {}) ;
+    }
+
+    // splitBy as released in 1.0.2
+    private static final class BaselineSplit {
+
+        private static String[] splitBy(String targetStr, String splitSymbol) {
+
+            targetStr = targetStr.trim() ;
+
+            ArrayList<String> stringList = new ArrayList<>() ;
+
+            int substringStartIndex = 0 ;
+            int splitSymbolLen = splitSymbol.length() ;
+            for (int i = 0 ; i <= targetStr.length() - splitSymbolLen ; i ++) {
+
+                if (targetStr.startsWith(splitSymbol, i)) {
+
+                    if (substringStartIndex != i) stringList.add(targetStr.substring(substringStartIndex, i)) ;
+
+                    substringStartIndex = i + splitSymbolLen ;
+
+                    i += splitSymbolLen - 1 ;
+                }
+            }
+
+            if (substringStartIndex < targetStr.length()) stringList.add(targetStr.substring(substringStartIndex)) ;
+
+            return stringList.toArray(new String[0]) ;
+        }
+
+        private static String[] splitBy(String targetStr, String splitSymbol, int limit) {
+
+            return Arrays.stream(splitBy(targetStr, splitSymbol)).limit(limit).toArray(String[]::new) ;
+        }
+    }
+}
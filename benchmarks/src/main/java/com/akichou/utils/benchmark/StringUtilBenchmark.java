@@ -0,0 +1,179 @@
+package com.akichou.utils.benchmark;
+
+import com.akichou.utils.util.AkiStringUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The char loops of AkiStringUtil against the regex calls they replaced in 1.0.2.
+ * replaceFirstString is still a regex, compiled once per pattern : compare it with baselineReplaceFirstString
+ * for the cache and with replaceFirstLiteral for the cost of the regex itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StringUtilBenchmark {
+
+    @Param({ "16", "256" })
+    public int wordCount ;
+
+    private String words ;
+    private String digits ;
+    private String lastWord ;
+
+    @Setup
+    public void setUp() {
+
+        StringBuilder wordBuilder = new StringBuilder() ;
+        StringBuilder digitBuilder = new StringBuilder() ;
+        for (int i = 0 ; i < wordCount ; i ++) {
+
+            if (i > 0) {
+
+                wordBuilder.append(' ') ;
+                digitBuilder.append(' ') ;
+            }
+            wordBuilder.append((char) ('a' + i % 26)).append("word") ;
+            digitBuilder.append(i) ;
+        }
+
+        words = wordBuilder.toString() ;
+        digits = digitBuilder.toString() ;
+        lastWord = (char) ('a' + (wordCount - 1) % 26) + "word" ;
+    }
+
+    @Benchmark
+    public boolean baselineIsAllAlphaSpace() {
+
+        return Baseline.isAllAlphaSpace(words) ;
+    }
+
+    @Benchmark
+    public boolean isAllAlphaSpace() {
+
+        return AkiStringUtil.isAllAlphaSpace(words) ;
+    }
+
+    @Benchmark
+    public boolean baselineIsAllNumberSpace() {
+
+        return Baseline.isAllNumberSpace(digits) ;
+    }
+
+    @Benchmark
+    public boolean isAllNumberSpace() {
+
+        return AkiStringUtil.isAllNumberSpace(digits) ;
+    }
+
+    @Benchmark
+    public String baselineTrimAll() {
+
+        return Baseline.trimAll(words) ;
+    }
+
+    @Benchmark
+    public String trimAll() {
+
+        return AkiStringUtil.trimAll(words) ;
+    }
+
+    @Benchmark
+    public String baselineReplaceFirstChar() {
+
+        return Baseline.replaceFirstChar(words, ' ', '_') ;
+    }
+
+    @Benchmark
+    public String replaceFirstChar() {
+
+        return AkiStringUtil.replaceFirstChar(words, ' ', '_') ;
+    }
+
+    @Benchmark
+    public String baselineReplaceFirstString() {
+
+        return Baseline.replaceFirstString(words, lastWord, "last") ;
+    }
+
+    @Benchmark
+    public String replaceFirstString() {
+
+        return AkiStringUtil.replaceFirstString(words, lastWord, "last") ;
+    }
+
+    @Benchmark
+    public String replaceFirstLiteral() {
+
+        return AkiStringUtil.replaceFirstLiteral(words, lastWord, "last") ;
+    }
+
+    @Benchmark
+    public String baselineRemoveAll() {
+
+        return Baseline.removeAll(words, ' ') ;
+    }
+
+    @Benchmark
+    public String removeAll() {
+
+        return AkiStringUtil.removeAll(words, ' ') ;
+    }
+
+    // The regex versions as released in 1.0.2
+    private static final class Baseline {
+
+        private static boolean isAllAlphaSpace(String targetStr) {
+
+            if (AkiStringUtil.isBlank(targetStr)) return false ;
+
+            return targetStr.matches("[a-zA-Z\\s]+") ;
+        }
+
+        private static boolean isAllNumberSpace(String targetStr) {
+
+            if (AkiStringUtil.isBlank(targetStr)) return false ;
+
+            return targetStr.matches("[0-9\\s]+") ;
+        }
+
+        private static String trimAll(String targetStr) {
+
+            if (AkiStringUtil.isBlank(targetStr)) return targetStr ;
+
+            return targetStr.replaceAll("\\s+", "") ;
+        }
+
+        private static String replaceFirstChar(String targetStr, char oldChar, char newChar) {
+
+            return targetStr.replaceFirst(String.valueOf(oldChar), String.valueOf(newChar)) ;
+        }
+
+        private static String replaceFirstString(String targetStr, String oldStr, String newStr) {
+
+            return targetStr.replaceFirst(oldStr, newStr) ;
+        }
+
+        private static String removeAll(String targetStr, char chara) {
+
+            int charaIndex = targetStr.indexOf(chara) ;
+            if (charaIndex == -1) return targetStr ;
+
+            return targetStr.replaceAll(String.valueOf(chara), "") ;
+        }
+    }
+}
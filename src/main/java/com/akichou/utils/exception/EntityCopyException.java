@@ -6,4 +6,10 @@ public class EntityCopyException extends RuntimeException{
 
         super(msg, cause) ;
     }
+
+    // writableStackTrace false skips the stack walk, for expected failures raised per element or whose cause already has the trace
+    public EntityCopyException(String msg, Throwable cause, boolean writableStackTrace) {
+
+        super(msg, cause, true, writableStackTrace) ;
+    }
 }
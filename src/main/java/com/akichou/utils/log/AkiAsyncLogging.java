@@ -0,0 +1,115 @@
+package com.akichou.utils.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.AsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.EventRoute;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Async logging profile of the starter.
+ * <p>
+ * With {@code -Dlog.async=true} the bundled configuration routes the root logger through an {@code AsyncRoot},
+ * i.e. a bounded LMAX Disruptor ring buffer drained by a dedicated writer thread, so request threads no longer
+ * block on disk I/O. The profile is tuned with the following system properties :
+ * <ul>
+ *     <li>{@code log.async.bufferSize} - ring buffer slots (power of two), default 262144</li>
+ *     <li>{@code log.async.waitStrategy} - writer thread idle strategy : Block, Timeout (default), Sleep, Yield, BusySpin</li>
+ *     <li>{@code log.async.queueFullPolicy} - {@code block} (default), {@code dropBelowWarn} or {@code discard}</li>
+ * </ul>
+ * They are translated into log4j properties by {@link #configure()}, which the application must call before log4j
+ * initializes, i.e. before the first logger (AkiLogger or not) is created. Explicitly set log4j properties always win.
+ */
+public final class AkiAsyncLogging {
+
+    public static final String ASYNC_PROPERTY = "log.async" ;
+    public static final String BUFFER_SIZE_PROPERTY = "log.async.bufferSize" ;
+    public static final String WAIT_STRATEGY_PROPERTY = "log.async.waitStrategy" ;
+    public static final String QUEUE_FULL_POLICY_PROPERTY = "log.async.queueFullPolicy" ;
+
+    // Events thrown away because the ring buffer was full
+    private static final LongAdder DISCARDED_COUNT = new LongAdder() ;
+
+    private static volatile boolean configured ;
+
+    private AkiAsyncLogging() {}
+
+    // Whether the async profile is selected
+    public static boolean isEnabled() {
+
+        return Boolean.getBoolean(ASYNC_PROPERTY) ;
+    }
+
+    // Number of events discarded by the "dropBelowWarn" / "discard" policies
+    public static long getDiscardedCount() {
+
+        return DISCARDED_COUNT.sum() ;
+    }
+
+    // Translate the starter properties into log4j ones, only once and only when the profile is selected
+    public static synchronized void configure() {
+
+        if (configured) return ;
+        configured = true ;
+
+        if (!isEnabled()) return ;
+
+        copyProperty(BUFFER_SIZE_PROPERTY, "log4j2.asyncLoggerConfigRingBufferSize") ;
+        copyProperty(WAIT_STRATEGY_PROPERTY, "log4j2.asyncLoggerConfigWaitStrategy") ;
+
+        QueueFullPolicy policy = QueueFullPolicy.current() ;
+        if (policy != QueueFullPolicy.BLOCK && System.getProperty("log4j2.asyncQueueFullPolicy") == null) {
+
+            System.setProperty("log4j2.asyncQueueFullPolicy", CountingQueueFullPolicy.class.getName()) ;
+        }
+    }
+
+    private static void copyProperty(String from, String to) {
+
+        String value = System.getProperty(from) ;
+        if (value != null && System.getProperty(to) == null) System.setProperty(to, value) ;
+    }
+
+    enum QueueFullPolicy {
+
+        BLOCK,              // Wait for a free slot (log4j default)
+        DROP_BELOW_WARN,    // Discard INFO and finer, wait for a free slot otherwise
+        DISCARD ;           // Discard every event while the buffer is full
+
+        static QueueFullPolicy current() {
+
+            String value = System.getProperty(QUEUE_FULL_POLICY_PROPERTY, "block") ;
+
+            return switch (value) {
+                case "block" -> BLOCK ;
+                case "dropBelowWarn" -> DROP_BELOW_WARN ;
+                case "discard" -> DISCARD ;
+                default -> throw new IllegalArgumentException("Unknown " + QUEUE_FULL_POLICY_PROPERTY + ": " + value) ;
+            } ;
+        }
+    }
+
+    /**
+     * Queue-full policy instantiated by log4j through {@code log4j2.asyncQueueFullPolicy}, counting what it discards.
+     */
+    public static final class CountingQueueFullPolicy implements AsyncQueueFullPolicy {
+
+        private final QueueFullPolicy policy = QueueFullPolicy.current() ;
+
+        @Override
+        public EventRoute getRoute(long backgroundThreadId, Level level) {
+
+            if (policy == QueueFullPolicy.DISCARD || level.isLessSpecificThan(Level.INFO)) {
+
+                DISCARDED_COUNT.increment() ;
+
+                return EventRoute.DISCARD ;
+            }
+
+            // Never block the writer thread on its own queue
+            if (Thread.currentThread().getId() == backgroundThreadId) return EventRoute.SYNCHRONOUS ;
+
+            return EventRoute.ENQUEUE ;
+        }
+    }
+}
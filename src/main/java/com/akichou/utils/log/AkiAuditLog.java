@@ -0,0 +1,486 @@
+package com.akichou.utils.log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Dedicated audit channel for {@link AkiLogger#logNormalOperation(String, String)} and
+ * {@link AkiLogger#logSensitiveOperation(String, String, String)} (enabled with {@code -Dlog.audit.enabled=true}).
+ * <p>
+ * Operations are put on a bounded queue (callers block when it is full) and a single writer thread appends them,
+ * in batches, as JSON lines to segment files under {@code ${log.dir}/audit}. Every batch is fsynced once
+ * (group commit) before the futures returned by {@link #append} complete, so a completed future means the record
+ * survives process death. A batch that fails is cut off the segment again and its futures fail. Records carry
+ * gap-free sequence numbers which continue across restarts (a failed batch that cannot be cut off leaves a gap,
+ * never a reused number).
+ * <p>
+ * Tuned with {@code log.audit.queueSize} (default 8192), {@code log.audit.batchSize} (default 512) and
+ * {@code log.audit.segmentSize} in bytes (default 64 MB).
+ */
+public final class AkiAuditLog implements AutoCloseable {
+
+    public static final String ENABLED_PROPERTY = "log.audit.enabled" ;
+
+    private static final String SEGMENT_PREFIX = "audit-" ;
+    private static final String SEGMENT_SUFFIX = ".jsonl" ;
+
+    private static final long POLL_INTERVAL_MILLIS = 100L ;
+
+    // Only the end of the newest segment is read back on startup, more of it only if no record parses there
+    private static final int RECOVERY_TAIL_SIZE = 1024 * 1024 ;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper() ;
+
+    private static final AkiLogger akiLogger = AkiLoggerFactory.getAkiLogger(AkiAuditLog.class) ;
+
+    private static volatile AkiAuditLog instance ;
+
+    private final Path directory ;
+    private final int batchSize ;
+    private final long segmentSize ;
+
+    private final BlockingQueue<PendingRecord> queue ;
+    private final Thread writerThread ;
+
+    // Appends hold the read lock until their record is queued, close takes the write lock, so nothing is queued after it
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock() ;
+    private volatile boolean closed ;
+
+    // Writer thread state
+    private FileChannel segmentChannel ;
+    private long lastSequence ;
+
+    private AkiAuditLog(Path directory, int queueSize, int batchSize, long segmentSize) throws IOException {
+
+        this.directory = directory ;
+        this.batchSize = batchSize ;
+        this.segmentSize = segmentSize ;
+        this.queue = new ArrayBlockingQueue<>(queueSize) ;
+
+        Files.createDirectories(directory) ;
+        openLatestSegment() ;
+
+        this.writerThread = new Thread(this::writeLoop, "AkiAuditLogWriter") ;
+        this.writerThread.setDaemon(true) ;
+        this.writerThread.start() ;
+    }
+
+    // Whether operations are routed to the audit channel
+    public static boolean isEnabled() {
+
+        return Boolean.getBoolean(ENABLED_PROPERTY) ;
+    }
+
+    // Shared channel writing under the current log directory, started on first use and closed on shutdown
+    public static AkiAuditLog getInstance() {
+
+        AkiAuditLog auditLog = instance ;
+        if (auditLog != null) return auditLog ;
+
+        synchronized (AkiAuditLog.class) {
+
+            if (instance == null) {
+
+                instance = open(Paths.get(AkiLogger.getLogDirectory(), "audit")) ;
+
+                Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "AkiAuditLogShutdown")) ;
+            }
+
+            return instance ;
+        }
+    }
+
+    // Open a standalone channel on the given directory
+    public static AkiAuditLog open(Path directory) {
+
+        try {
+
+            return new AkiAuditLog(directory,
+                                   Integer.getInteger("log.audit.queueSize", 8192),
+                                   Integer.getInteger("log.audit.batchSize", 512),
+                                   Long.getLong("log.audit.segmentSize", 64L * 1024 * 1024)) ;
+        } catch (IOException e) {
+
+            throw new UncheckedIOException("Failed to open audit log in " + directory, e) ;
+        }
+    }
+
+    /**
+     * Submit an operation, blocking while the queue is full.
+     * @return Future completed with the record's sequence number once it is fsynced, or completed exceptionally
+     *         if the record could not be written.
+     * @throws IllegalStateException If the audit log is closed.
+     */
+    public CompletableFuture<Long> append(AkiAuditRecord.Type type, String operation, String actorId, String targetId) {
+
+        PendingRecord pendingRecord = new PendingRecord(System.currentTimeMillis(), type, operation, actorId, targetId) ;
+
+        stateLock.readLock().lock() ;
+        try {
+
+            if (closed) throw new IllegalStateException("Audit log is closed") ;
+
+            // The writer keeps draining until close, so a full queue never blocks close forever
+            queue.put(pendingRecord) ;
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt() ;
+
+            pendingRecord.future.completeExceptionally(e) ;
+        } finally {
+
+            stateLock.readLock().unlock() ;
+        }
+
+        return pendingRecord.future ;
+    }
+
+    // Stop accepting records, write and fsync what is queued, then release the segment file
+    @Override
+    public void close() {
+
+        stateLock.writeLock().lock() ;
+        try {
+
+            if (closed) return ;
+            closed = true ;
+        } finally {
+
+            stateLock.writeLock().unlock() ;
+        }
+
+        try {
+
+            writerThread.join() ;
+        } catch (InterruptedException e) {
+
+            // The writer still owns the queue, it finishes on its own
+            Thread.currentThread().interrupt() ;
+
+            return ;
+        }
+
+        // Only left if the writer died, their callers must not wait forever
+        List<PendingRecord> leftovers = new ArrayList<>() ;
+        queue.drainTo(leftovers) ;
+
+        IllegalStateException failure = new IllegalStateException("Audit log closed before the record was written") ;
+        for (PendingRecord pendingRecord : leftovers) pendingRecord.future.completeExceptionally(failure) ;
+    }
+
+    /**
+     * Read back every record with a sequence number of at least fromSequence, in order.
+     * A truncated last line (process killed while writing) is skipped.
+     * @param directory Audit directory.
+     * @param fromSequence First sequence number to deliver.
+     * @param consumer Receives the records.
+     */
+    public static void replay(Path directory, long fromSequence, Consumer<AkiAuditRecord> consumer) {
+
+        try {
+
+            for (Path segment : listSegments(directory)) {
+
+                try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+
+                    String line ;
+                    while ((line = reader.readLine()) != null) {
+
+                        AkiAuditRecord auditRecord = parse(line) ;
+                        if (auditRecord != null && auditRecord.sequence() >= fromSequence) consumer.accept(auditRecord) ;
+                    }
+                }
+            }
+        } catch (IOException e) {
+
+            throw new UncheckedIOException("Failed to replay audit log in " + directory, e) ;
+        }
+    }
+
+    private void writeLoop() {
+
+        List<PendingRecord> batch = new ArrayList<>(batchSize) ;
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(64 * 1024) ;
+
+        // Polling instead of interrupting : an interrupt would close the FileChannel in the middle of a write
+        while (!closed || !queue.isEmpty()) {
+
+            try {
+
+                PendingRecord first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS) ;
+                if (first == null) continue ;
+
+                batch.add(first) ;
+            } catch (InterruptedException e) {
+
+                continue ;
+            }
+
+            queue.drainTo(batch, batchSize - 1) ;
+
+            commit(batch, encoded) ;
+
+            batch.clear() ;
+            encoded.reset() ;
+        }
+
+        closeSegment() ;
+    }
+
+    // Group commit : one write and one fsync for the whole batch
+    private void commit(List<PendingRecord> batch, ByteArrayOutputStream encoded) {
+
+        long firstSequence = lastSequence + 1 ;
+        long batchStart = -1 ;
+
+        try {
+
+            for (int i = 0 ; i < batch.size() ; i ++) {
+
+                PendingRecord pendingRecord = batch.get(i) ;
+
+                OBJECT_MAPPER.writeValue(encoded, pendingRecord.toRecord(firstSequence + i)) ;
+                encoded.write('\n') ;
+            }
+
+            if (segmentChannel.size() >= segmentSize) rollSegment(firstSequence) ;
+
+            batchStart = segmentChannel.position() ;
+
+            ByteBuffer buffer = ByteBuffer.wrap(encoded.toByteArray()) ;
+            while (buffer.hasRemaining()) segmentChannel.write(buffer) ;
+
+            segmentChannel.force(false) ;
+        } catch (IOException | RuntimeException e) {
+
+            // Nothing of the batch is acknowledged
+            akiLogger.error("Failed to write " + batch.size() + " audit records", e) ;
+
+            if (batchStart >= 0) rollBack(batchStart, batch.size()) ;
+
+            for (PendingRecord pendingRecord : batch) pendingRecord.future.completeExceptionally(e) ;
+
+            return ;
+        }
+
+        lastSequence += batch.size() ;
+
+        for (int i = 0 ; i < batch.size() ; i ++) batch.get(i).future.complete(firstSequence + i) ;
+    }
+
+    // Cut a failed batch off the segment, so its sequence numbers can be reused by the next batch
+    private void rollBack(long batchStart, int batchSize) {
+
+        try {
+
+            segmentChannel.truncate(batchStart) ;
+            segmentChannel.position(batchStart) ;
+        } catch (IOException | RuntimeException e) {
+
+            // Part of the batch may stay on disk : skip its numbers and continue in a fresh segment
+            akiLogger.error("Failed to roll back audit segment, skipping sequence numbers " + (lastSequence + 1) + " to " + (lastSequence + batchSize), e) ;
+
+            lastSequence += batchSize ;
+
+            try {
+
+                segmentChannel.close() ;
+                openSegment(segmentPath(lastSequence + 1)) ;
+            } catch (IOException openFailure) {
+
+                akiLogger.error("Failed to open a new audit segment", openFailure) ;
+            }
+        }
+    }
+
+    // Continue the newest segment after its last valid record, dropping whatever follows it, and recover the sequence number
+    private void openLatestSegment() throws IOException {
+
+        List<Path> segments = listSegments(directory) ;
+        if (segments.isEmpty()) {
+
+            openSegment(segmentPath(1)) ;
+
+            return ;
+        }
+
+        Path latest = segments.get(segments.size() - 1) ;
+        openSegment(latest) ;
+
+        // The one before the segment's first sequence if no record of it parses
+        lastSequence = parseFirstSequence(latest) - 1 ;
+        long validEnd = 0 ;
+
+        long size = segmentChannel.size() ;
+        long tailSize = Math.min(size, RECOVERY_TAIL_SIZE) ;
+
+        // Scan back from the end to the last line that parses, reading a larger tail while none is found in it
+        scan :
+        while (tailSize > 0) {
+
+            long tailStart = size - tailSize ;
+            byte[] content = readTail(tailStart, Math.toIntExact(tailSize)) ;
+
+            // Newline ending the line being checked, the bytes after the last newline are a partial line
+            int lineEnd = lastIndexOfNewline(content, content.length - 1) ;
+            while (lineEnd >= 0) {
+
+                int lineStart = lastIndexOfNewline(content, lineEnd - 1) + 1 ;
+
+                // This line may begin before the tail
+                if (lineStart == 0 && tailStart > 0) break ;
+
+                AkiAuditRecord auditRecord = parse(new String(content, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8)) ;
+                if (auditRecord != null) {
+
+                    lastSequence = auditRecord.sequence() ;
+                    validEnd = tailStart + lineEnd + 1 ;
+
+                    break scan ;
+                }
+
+                lineEnd = lineStart - 1 ;
+            }
+
+            if (tailStart == 0) break ;
+
+            tailSize = Math.min(size, tailSize * 2) ;
+        }
+
+        if (validEnd < size) akiLogger.warn("Dropped {} bytes after the last valid record of audit segment {}", size - validEnd, latest) ;
+
+        segmentChannel.truncate(validEnd) ;
+        segmentChannel.position(validEnd) ;
+    }
+
+    private byte[] readTail(long tailStart, int tailSize) throws IOException {
+
+        ByteBuffer tail = ByteBuffer.allocate(tailSize) ;
+        while (tail.hasRemaining() && segmentChannel.read(tail, tailStart + tail.position()) >= 0) ;
+
+        return tail.array() ;
+    }
+
+    private static int lastIndexOfNewline(byte[] content, int fromIndex) {
+
+        int index = fromIndex ;
+        while (index >= 0 && content[index] != '\n') index -- ;
+
+        return index ;
+    }
+
+    private void rollSegment(long firstSequence) throws IOException {
+
+        segmentChannel.force(true) ;
+        segmentChannel.close() ;
+
+        openSegment(segmentPath(firstSequence)) ;
+    }
+
+    private void openSegment(Path path) throws IOException {
+
+        segmentChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE) ;
+        segmentChannel.position(segmentChannel.size()) ;
+    }
+
+    private void closeSegment() {
+
+        try {
+
+            segmentChannel.force(true) ;
+            segmentChannel.close() ;
+        } catch (IOException e) {
+
+            akiLogger.error("Failed to close audit segment", e) ;
+        }
+    }
+
+    // Segment files are named after their first sequence number, zero-padded so name order is sequence order
+    private Path segmentPath(long firstSequence) {
+
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX)) ;
+    }
+
+    private static long parseFirstSequence(Path segment) {
+
+        String fileName = segment.getFileName().toString() ;
+
+        return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length())) ;
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+
+        if (!Files.isDirectory(directory)) return List.of() ;
+
+        try (Stream<Path> files = Files.list(directory)) {
+
+            return files.filter(path -> {
+
+                            String fileName = path.getFileName().toString() ;
+
+                            return fileName.startsWith(SEGMENT_PREFIX) && fileName.endsWith(SEGMENT_SUFFIX) ;
+                        })
+                        .sorted()
+                        .toList() ;
+        }
+    }
+
+    private static AkiAuditRecord parse(String line) {
+
+        if (line.isBlank()) return null ;
+
+        try {
+
+            return OBJECT_MAPPER.readValue(line, AkiAuditRecord.class) ;
+        } catch (IOException e) {
+
+            return null ;
+        }
+    }
+
+    private static final class PendingRecord {
+
+        private final long timeMillis ;
+        private final AkiAuditRecord.Type type ;
+        private final String operation ;
+        private final String actorId ;
+        private final String targetId ;
+
+        private final CompletableFuture<Long> future = new CompletableFuture<>() ;
+
+        private PendingRecord(long timeMillis, AkiAuditRecord.Type type, String operation, String actorId, String targetId) {
+
+            this.timeMillis = timeMillis ;
+            this.type = type ;
+            this.operation = operation ;
+            this.actorId = actorId ;
+            this.targetId = targetId ;
+        }
+
+        private AkiAuditRecord toRecord(long sequence) {
+
+            return new AkiAuditRecord(sequence, timeMillis, type, operation, actorId, targetId) ;
+        }
+    }
+}
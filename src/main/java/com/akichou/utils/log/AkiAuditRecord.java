@@ -0,0 +1,24 @@
+package com.akichou.utils.log;
+
+/**
+ * One entry of the audit channel, stored as a JSON line by {@link AkiAuditLog}.
+ * @param sequence Gap-free sequence number, increasing across segment files.
+ * @param timeMillis Time the operation was submitted.
+ * @param type Kind of operation.
+ * @param operation Operation description.
+ * @param actorId User / admin who performed the operation.
+ * @param targetId Target of a sensitive operation, null for normal ones.
+ */
+public record AkiAuditRecord(long sequence,
+                             long timeMillis,
+                             Type type,
+                             String operation,
+                             String actorId,
+                             String targetId) {
+
+    public enum Type {
+
+        NORMAL,
+        SENSITIVE
+    }
+}
@@ -0,0 +1,204 @@
+package com.akichou.utils.log;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.layout.AbstractStringLayout;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.apache.logging.log4j.message.Message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Structured layout writing each event as one JSON object per line (selected with {@code -Dlog.format=json}).
+ * <p>
+ * Fields : {@code timeMillis, level, logger, thread, prefix, message, template, arguments, exception}. An exception is
+ * {@code class, message, stack, cause}, each frame of its stack {@code module, class, method, file, line, native}
+ * (absent parts omitted).
+ * Events are streamed through Jackson's {@link JsonGenerator} straight into the appender's byte buffer,
+ * no intermediate String or Map is built for them. Exceptions keep all their frames, the {@code log.stack.*} options
+ * of {@link AkiStackTraces} only shape the text output.
+ */
+@Plugin(name = "AkiJsonLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
+public final class AkiJsonLayout extends AbstractStringLayout {
+
+    public static final String FORMAT_PROPERTY = "log.format" ;
+
+    // Whether AkiLogger should emit structured messages (prefix kept apart, exceptions attached instead of rendered)
+    static final boolean ENABLED = "json".equals(System.getProperty(FORMAT_PROPERTY)) ;
+
+    private static final int MAX_CAUSE_DEPTH = 8 ;
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder().build() ;
+
+    private AkiJsonLayout() {
+
+        super(StandardCharsets.UTF_8) ;
+    }
+
+    @PluginFactory
+    public static AkiJsonLayout createLayout() {
+
+        return new AkiJsonLayout() ;
+    }
+
+    @Override
+    public String getContentType() {
+
+        return "application/json; charset=UTF-8" ;
+    }
+
+    @Override
+    public String toSerializable(LogEvent event) {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(256) ;
+        writeEvent(event, outputStream) ;
+
+        return outputStream.toString(StandardCharsets.UTF_8) ;
+    }
+
+    @Override
+    public void encode(LogEvent event, ByteBufferDestination destination) {
+
+        // Same locking as log4j's own text encoders, so concurrent events never interleave
+        synchronized (destination) {
+
+            writeEvent(event, new DestinationOutputStream(destination)) ;
+        }
+    }
+
+    private void writeEvent(LogEvent event, OutputStream outputStream) {
+
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8)) {
+
+            Message message = event.getMessage() ;
+
+            generator.writeStartObject() ;
+            generator.writeNumberField("timeMillis", event.getTimeMillis()) ;
+            generator.writeStringField("level", event.getLevel().name()) ;
+            generator.writeStringField("logger", event.getLoggerName()) ;
+            generator.writeStringField("thread", event.getThreadName()) ;
+
+            if (message instanceof AkiLazyMessage lazyMessage && lazyMessage.getPrefix() != null) {
+
+                generator.writeStringField("prefix", lazyMessage.getPrefix()) ;
+            }
+
+            generator.writeStringField("message", message.getFormattedMessage()) ;
+
+            String template = message.getFormat() ;
+            if (template != null) generator.writeStringField("template", template) ;
+
+            Object[] arguments = message.getParameters() ;
+            if (arguments != null && arguments.length > 0) {
+
+                generator.writeArrayFieldStart("arguments") ;
+                for (Object argument : arguments) {
+
+                    writeArgument(generator, argument) ;
+                }
+                generator.writeEndArray() ;
+            }
+
+            Throwable thrown = event.getThrown() ;
+            if (thrown != null) {
+
+                generator.writeFieldName("exception") ;
+                writeThrowable(generator, thrown, 0) ;
+            }
+
+            generator.writeEndObject() ;
+            generator.writeRaw('\n') ;
+        } catch (IOException e) {
+
+            throw new UncheckedIOException("Failed to write JSON log event", e) ;
+        }
+    }
+
+    // Keep numbers and booleans typed, everything else becomes its string form
+    private void writeArgument(JsonGenerator generator, Object argument) throws IOException {
+
+        if (argument == null) generator.writeNull() ;
+        else if (argument instanceof Integer || argument instanceof Long
+                || argument instanceof Short || argument instanceof Byte) generator.writeNumber(((Number) argument).longValue()) ;
+        else if (argument instanceof Double || argument instanceof Float) generator.writeNumber(((Number) argument).doubleValue()) ;
+        else if (argument instanceof BigDecimal bigDecimal) generator.writeNumber(bigDecimal) ;
+        else if (argument instanceof BigInteger bigInteger) generator.writeNumber(bigInteger) ;
+        else if (argument instanceof Boolean bool) generator.writeBoolean(bool) ;
+        else generator.writeString(String.valueOf(argument)) ;
+    }
+
+    private void writeThrowable(JsonGenerator generator, Throwable thrown, int depth) throws IOException {
+
+        generator.writeStartObject() ;
+        generator.writeStringField("class", thrown.getClass().getName()) ;
+        generator.writeStringField("message", thrown.getMessage()) ;
+
+        generator.writeArrayFieldStart("stack") ;
+        for (StackTraceElement element : thrown.getStackTrace()) {
+
+            writeFrame(generator, element) ;
+        }
+        generator.writeEndArray() ;
+
+        Throwable cause = thrown.getCause() ;
+        if (cause != null && cause != thrown && depth < MAX_CAUSE_DEPTH) {
+
+            generator.writeFieldName("cause") ;
+            writeThrowable(generator, cause, depth + 1) ;
+        }
+
+        generator.writeEndObject() ;
+    }
+
+    // The parts of StackTraceElement.toString() as fields, written straight from the element without building its String
+    private void writeFrame(JsonGenerator generator, StackTraceElement element) throws IOException {
+
+        generator.writeStartObject() ;
+
+        if (element.getModuleName() != null) generator.writeStringField("module", element.getModuleName()) ;
+
+        generator.writeStringField("class", element.getClassName()) ;
+        generator.writeStringField("method", element.getMethodName()) ;
+
+        if (element.getFileName() != null) generator.writeStringField("file", element.getFileName()) ;
+        if (element.getLineNumber() >= 0) generator.writeNumberField("line", element.getLineNumber()) ;
+        if (element.isNativeMethod()) generator.writeBooleanField("native", true) ;
+
+        generator.writeEndObject() ;
+    }
+
+    // Lets the generator flush its (recycled) buffer directly into the appender's destination
+    private static final class DestinationOutputStream extends OutputStream {
+
+        private final ByteBufferDestination destination ;
+
+        private DestinationOutputStream(ByteBufferDestination destination) {
+
+            this.destination = destination ;
+        }
+
+        @Override
+        public void write(int b) {
+
+            write(new byte[] { (byte) b }, 0, 1) ;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+
+            destination.writeBytes(bytes, offset, length) ;
+        }
+    }
+}
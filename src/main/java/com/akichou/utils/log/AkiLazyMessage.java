@@ -0,0 +1,80 @@
+package com.akichou.utils.log;
+
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+
+import java.util.function.Supplier;
+
+/**
+ * Message which formats its template (and optional prefix) only on first use, then memoizes the result.
+ * It is handed to log4j and to the caller at the same time, so a single formatting pass serves both.
+ */
+final class AkiLazyMessage implements Message, Supplier<String> {
+
+    private static final long serialVersionUID = 1L ;
+
+    private final String prefix ;
+    private final String format ;
+    private final transient Object[] params ;
+
+    // Racy single-check idiom : formatting is idempotent, so a duplicate pass is harmless
+    private volatile String formattedMessage ;
+
+    AkiLazyMessage(String prefix, String format, Object[] params) {
+
+        this.prefix = prefix ;
+        this.format = format ;
+        this.params = params ;
+    }
+
+    String getPrefix() {
+
+        return prefix ;
+    }
+
+    @Override
+    public String get() {
+
+        return getFormattedMessage() ;
+    }
+
+    @Override
+    public String getFormattedMessage() {
+
+        String result = formattedMessage ;
+        if (result == null) {
+
+            String message = ParameterizedMessage.format(format, params) ;
+
+            result = prefix == null ? message : "[" + prefix + "] " + message ;
+
+            formattedMessage = result ;
+        }
+
+        return result ;
+    }
+
+    @Override
+    public String getFormat() {
+
+        return format ;
+    }
+
+    @Override
+    public Object[] getParameters() {
+
+        return params ;
+    }
+
+    @Override
+    public Throwable getThrowable() {
+
+        return null ;
+    }
+
+    @Override
+    public String toString() {
+
+        return getFormattedMessage() ;
+    }
+}
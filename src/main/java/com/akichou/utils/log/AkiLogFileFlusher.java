@@ -0,0 +1,94 @@
+package com.akichou.utils.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractOutputStreamAppender;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time threshold of the batched file sink.
+ * <p>
+ * The bundled file appender buffers encoded events ({@code log.file.bufferSize}) and only writes when the
+ * buffer is full. This daemon flushes every file manager each {@code log.file.flushInterval} milliseconds
+ * (default 1000, {@code 0} disables it), so quiet periods don't hold events back. Remaining data is flushed
+ * by log4j's own shutdown hook when the logger context stops. The daemon is started by the first {@link AkiLogger},
+ * and only when the active configuration has a buffered ({@code immediateFlush="false"}) appender.
+ */
+final class AkiLogFileFlusher {
+
+    private static final long FLUSH_INTERVAL_MILLIS = Long.getLong("log.file.flushInterval", 1000L) ;
+
+    private static volatile ScheduledExecutorService scheduler ;
+
+    private AkiLogFileFlusher() {}
+
+    private static volatile boolean checked ;
+
+    // Start the daemon once, only when flushing is enabled and the configuration has a buffered file appender
+    static void startIfNeeded() {
+
+        if (checked) return ;
+
+        synchronized (AkiLogFileFlusher.class) {
+
+            if (checked) return ;
+            checked = true ;
+
+            if (FLUSH_INTERVAL_MILLIS <= 0 || !hasBufferedAppender()) return ;
+
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+
+                Thread thread = new Thread(runnable, "AkiLogFileFlusher") ;
+                thread.setDaemon(true) ;
+
+                return thread ;
+            }) ;
+
+            scheduler.scheduleWithFixedDelay(AkiLogFileFlusher::flushAll,
+                                             FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS) ;
+        }
+    }
+
+    // Whether the daemon was started
+    static boolean isRunning() {
+
+        return scheduler != null ;
+    }
+
+    private static boolean hasBufferedAppender() {
+
+        if (!(LogManager.getContext(false) instanceof LoggerContext loggerContext)) return false ;
+
+        for (Appender appender : loggerContext.getConfiguration().getAppenders().values()) {
+
+            if (appender instanceof AbstractOutputStreamAppender<?> streamAppender && !streamAppender.getImmediateFlush()) return true ;
+        }
+
+        return false ;
+    }
+
+    // Flush every stream-based appender of the current configuration
+    static void flushAll() {
+
+        try {
+
+            if (!(LogManager.getContext(false) instanceof LoggerContext loggerContext)) return ;
+
+            for (Appender appender : loggerContext.getConfiguration().getAppenders().values()) {
+
+                if (appender instanceof AbstractOutputStreamAppender<?> streamAppender && streamAppender.isStarted()) {
+
+                    streamAppender.getManager().flush() ;
+                }
+            }
+        } catch (RuntimeException e) {
+
+            // Never let a failed flush kill the scheduler
+            System.err.println("Failed to flush log files: " + e.getMessage()) ;
+        }
+    }
+}
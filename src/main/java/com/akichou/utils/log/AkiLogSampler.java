@@ -0,0 +1,290 @@
+package com.akichou.utils.log;
+
+import org.apache.logging.log4j.status.StatusLogger;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limiter / sampler for error floods, attached with {@link AkiLogger#setErrorSampler(AkiLogSampler)}.
+ * <p>
+ * Events are grouped by "similarity" : the same message template with the same exception fingerprint
+ * (exception classes and frames). Each group is limited on its own, with lock-free CAS state only.
+ * When a group is admitted again after suppressing events, the logger first reports
+ * "Suppressed X similar events". Groups still holding suppressed events are also reported every summary interval
+ * ({@code log.sampler.summaryInterval} milliseconds, default 10000, {@code 0} disables it), so the total of a flood
+ * that stopped is not lost. The timer is a daemon thread started on the first suppressed event.
+ *
+ * <pre>
+ * {@code
+ *     akiLogger.setErrorSampler(AkiLogSampler.tokenBucket(5, 20)) ;       // 5 events / second, bursts up to 20
+ *     akiLogger.setErrorSampler(AkiLogSampler.firstThenEvery(10, 100)) ;  // first 10, then 1 in 100
+ * }
+ * </pre>
+ */
+public abstract class AkiLogSampler {
+
+    // Distinct groups tracked separately, later groups share one overflow slot
+    private static final int DEFAULT_MAX_GROUPS = 1024 ;
+
+    private final ConcurrentMap<Long, Slot> slots = new ConcurrentHashMap<>() ;
+    private final Slot overflowSlot = new Slot() ;
+    private final int maxGroups ;
+
+    private final LongAdder admittedCount = new LongAdder() ;
+    private final LongAdder suppressedCount = new LongAdder() ;
+
+    private volatile long summaryIntervalMillis = Long.getLong("log.sampler.summaryInterval", 10_000L) ;
+    private final AtomicBoolean summaryScheduled = new AtomicBoolean() ;
+
+    private AkiLogSampler(int maxGroups) {
+
+        this.maxGroups = maxGroups ;
+    }
+
+    /**
+     * Token bucket per group.
+     * @param permitsPerSecond Sustained number of events admitted per second.
+     * @param burst Number of events admitted at once after a quiet period.
+     * @return Token bucket sampler.
+     */
+    public static AkiLogSampler tokenBucket(double permitsPerSecond, int burst) {
+
+        if (permitsPerSecond <= 0) throw new IllegalArgumentException("Permits per second must be positive") ;
+        if (burst < 1) throw new IllegalArgumentException("Burst must be at least 1") ;
+
+        return new TokenBucket(permitsPerSecond, burst, DEFAULT_MAX_GROUPS) ;
+    }
+
+    /**
+     * Admit the first events of a group, then only one in every few.
+     * @param first Number of events always admitted.
+     * @param every After the first ones, admit one event in this many.
+     * @return Counting sampler.
+     */
+    public static AkiLogSampler firstThenEvery(long first, long every) {
+
+        if (first < 0) throw new IllegalArgumentException("First must be non-negative") ;
+        if (every < 1) throw new IllegalArgumentException("Every must be at least 1") ;
+
+        return new FirstThenEvery(first, every, DEFAULT_MAX_GROUPS) ;
+    }
+
+    // Total number of admitted events
+    public long getAdmittedCount() {
+
+        return admittedCount.sum() ;
+    }
+
+    // Total number of suppressed events
+    public long getSuppressedCount() {
+
+        return suppressedCount.sum() ;
+    }
+
+    /**
+     * Change how often suppressed events are summarized, before the sampler is used.
+     * @param interval Summary interval, zero to only report them with the group's next admitted event.
+     * @return This sampler.
+     */
+    public AkiLogSampler summaryInterval(Duration interval) {
+
+        if (interval.isNegative()) throw new IllegalArgumentException("Summary interval must be non-negative") ;
+
+        this.summaryIntervalMillis = interval.toMillis() ;
+
+        return this ;
+    }
+
+    /**
+     * Decide whether an event of the group is logged.
+     * @param logger Logger of the event, the periodic summary of the group is written there.
+     * @return -1 if the event is suppressed, otherwise the number of events of the group suppressed since the last admitted one.
+     */
+    long admit(long groupKey, String msg, AkiLogger logger) {
+
+        Slot slot = slot(groupKey) ;
+
+        if (!tryAdmit(slot, System.nanoTime())) {
+
+            slot.suppressed.incrementAndGet() ;
+            suppressedCount.increment() ;
+
+            // Only written when they change, floods of one group keep the line shared
+            if (slot.logger != logger) slot.logger = logger ;
+            if (slot.message != msg) slot.message = msg ;
+
+            if (!summaryScheduled.get()) scheduleSummary() ;
+
+            return -1 ;
+        }
+
+        admittedCount.increment() ;
+
+        // Cheap read first, so the common "nothing suppressed" case doesn't write
+        return slot.suppressed.get() == 0 ? 0 : slot.suppressed.getAndSet(0) ;
+    }
+
+    long admit(String msg, Throwable e, AkiLogger logger) {
+
+        return admit(AkiThrowableFingerprint.of(msg, e), msg, logger) ;
+    }
+
+    // Report every group holding suppressed events, called by the summary timer
+    void reportSuppressed() {
+
+        for (Slot slot : slots.values()) reportSuppressed(slot) ;
+
+        reportSuppressed(overflowSlot) ;
+    }
+
+    private static void reportSuppressed(Slot slot) {
+
+        if (slot.suppressed.get() == 0) return ;
+
+        // Taken atomically, an admitted event racing with the timer reports the rest
+        long suppressed = slot.suppressed.getAndSet(0) ;
+
+        AkiLogger logger = slot.logger ;
+        if (suppressed > 0 && logger != null) logger.reportSuppressed(suppressed, slot.message) ;
+    }
+
+    private void scheduleSummary() {
+
+        long intervalMillis = summaryIntervalMillis ;
+
+        if (intervalMillis <= 0 || !summaryScheduled.compareAndSet(false, true)) return ;
+
+        SummaryTask summaryTask = new SummaryTask(this) ;
+        summaryTask.future = SummaryTask.SCHEDULER.scheduleWithFixedDelay(summaryTask, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS) ;
+    }
+
+    abstract boolean tryAdmit(Slot slot, long nowNanos) ;
+
+    private Slot slot(long groupKey) {
+
+        Slot slot = slots.get(groupKey) ;
+        if (slot != null) return slot ;
+
+        if (slots.size() >= maxGroups) return overflowSlot ;
+
+        return slots.computeIfAbsent(groupKey, key -> new Slot()) ;
+    }
+
+    // Per-group state : meaning of "state" depends on the strategy
+    static final class Slot {
+
+        final AtomicLong state = new AtomicLong(Long.MIN_VALUE) ;
+        final AtomicLong suppressed = new AtomicLong() ;
+
+        // Last logger / message that suppressed an event of the group, for the periodic summary
+        volatile AkiLogger logger ;
+        volatile String message ;
+    }
+
+    // Holds the sampler weakly, so a sampler no longer referenced by any logger stops being summarized
+    private static final class SummaryTask implements Runnable {
+
+        // Started on the first suppressed event of any sampler
+        private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+
+            Thread thread = new Thread(runnable, "AkiLogSamplerSummary") ;
+            thread.setDaemon(true) ;
+
+            return thread ;
+        }) ;
+
+        private final WeakReference<AkiLogSampler> sampler ;
+        private volatile ScheduledFuture<?> future ;
+
+        private SummaryTask(AkiLogSampler sampler) {
+
+            this.sampler = new WeakReference<>(sampler) ;
+        }
+
+        @Override
+        public void run() {
+
+            AkiLogSampler currentSampler = sampler.get() ;
+
+            if (currentSampler == null) {
+
+                future.cancel(false) ;
+
+                return ;
+            }
+
+            try {
+
+                currentSampler.reportSuppressed() ;
+            } catch (RuntimeException e) {
+
+                // Never let a failed summary kill the timer
+                StatusLogger.getLogger().error("Failed to report suppressed log events", e) ;
+            }
+        }
+    }
+
+    // Generic cell rate algorithm : a token bucket kept in one "theoretical arrival time" word
+    private static final class TokenBucket extends AkiLogSampler {
+
+        private final long intervalNanos ;
+        private final long burstNanos ;
+
+        private TokenBucket(double permitsPerSecond, int burst, int maxGroups) {
+
+            super(maxGroups) ;
+
+            this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond)) ;
+            this.burstNanos = intervalNanos * burst ;
+        }
+
+        @Override
+        boolean tryAdmit(Slot slot, long nowNanos) {
+
+            while (true) {
+
+                long arrivalTime = slot.state.get() ;
+
+                long base = arrivalTime == Long.MIN_VALUE || arrivalTime - nowNanos < 0 ? nowNanos : arrivalTime ;
+                long nextArrivalTime = base + intervalNanos ;
+
+                if (nextArrivalTime - nowNanos > burstNanos) return false ;
+
+                if (slot.state.compareAndSet(arrivalTime, nextArrivalTime)) return true ;
+            }
+        }
+    }
+
+    private static final class FirstThenEvery extends AkiLogSampler {
+
+        private final long first ;
+        private final long every ;
+
+        private FirstThenEvery(long first, long every, int maxGroups) {
+
+            super(maxGroups) ;
+
+            this.first = first ;
+            this.every = every ;
+        }
+
+        @Override
+        boolean tryAdmit(Slot slot, long nowNanos) {
+
+            // State starts at Long.MIN_VALUE, so the count is the offset from it
+            long count = slot.state.incrementAndGet() - Long.MIN_VALUE ;
+
+            return count <= first || (count - first) % every == 0 ;
+        }
+    }
+}
@@ -1,26 +1,46 @@
 package com.akichou.utils.log;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 public final class AkiLogger {
 
-    private static Logger logger ;
+    // Each instance owns its delegate, so the category stays bound to the creating name / class
+    private final Logger logger ;
+
+    // Optional limiter for errorWithStack / errorRootCause floods, null means log everything
+    private volatile AkiLogSampler errorSampler ;
 
     private static final String DEFAULT_LOG_DIR = "logs" ;
 
+    // Log directories which have already been created and verified
+    private static final Set<String> VERIFIED_LOG_DIRS = ConcurrentHashMap.newKeySet() ;
+
+    // Structured (JSON) output keeps prefix / exception apart, so it takes precedence over the garbage-free mode
+    private static final boolean STRUCTURED = AkiJsonLayout.ENABLED ;
+    private static final boolean GARBAGE_FREE = AkiReusableMessage.ENABLED && !STRUCTURED ;
+
     // Create Logger with Class Name
     public AkiLogger(String name) {
 
         ensureLogDirectoryExists() ;
 
         logger = LogManager.getLogger(name) ;
+
+        // log4j is initialized by now, so its appenders are known
+        AkiLogFileFlusher.startIfNeeded() ;
     }
 
     // Create Logger with CLass
@@ -29,6 +49,9 @@ public final class AkiLogger {
         ensureLogDirectoryExists() ;
 
         logger = LogManager.getLogger(clazz) ;
+
+        // log4j is initialized by now, so its appenders are known
+        AkiLogFileFlusher.startIfNeeded() ;
     }
 
     private void ensureLogDirectoryExists() {
@@ -39,6 +62,10 @@ public final class AkiLogger {
 
             // Get log path from configuration or env variable
             String logPath = System.getProperty("log.dir", DEFAULT_LOG_DIR) ;
+
+            // Only touch the file system once per distinct log directory
+            if (VERIFIED_LOG_DIRS.contains(logPath)) return ;
+
             Path path = Paths.get(logPath) ;
 
             // Create log directory
@@ -47,6 +74,8 @@ public final class AkiLogger {
             // Test isWritable
             if (!Files.isWritable(path)) throw new IOException("Log directory isn't writable: " + path) ;
 
+            VERIFIED_LOG_DIRS.add(logPath) ;
+
         } catch (IOException e) {
 
             String errorMsg = "Failed to create or verify log directory: " + e.getMessage() ;
@@ -57,16 +86,50 @@ public final class AkiLogger {
         }
     }
 
+    // Get the category name this logger writes under
+    public String getName() {
+
+        return logger.getName() ;
+    }
+
+    // Rate-limit / sample errorWithStack and errorRootCause, pass null to log everything again
+    public void setErrorSampler(AkiLogSampler sampler) {
+
+        this.errorSampler = sampler ;
+    }
+
+    public AkiLogSampler getErrorSampler() {
+
+        return errorSampler ;
+    }
+
     // Get the current log directory
     public static String getLogDirectory() {
 
         return System.getProperty("log.dir", DEFAULT_LOG_DIR) ;
     }
 
-    // Update the current log directory
+    // Whether the garbage-free mode (-Dlog.garbageFree=true) is active
+    public static boolean isGarbageFree() {
+
+        return GARBAGE_FREE ;
+    }
+
+    // Whether the structured JSON mode (-Dlog.format=json) is active
+    public static boolean isStructured() {
+
+        return STRUCTURED ;
+    }
+
+    // Update the current log directory, file appenders are moved there by reconfiguring log4j
     public static void setLogDirectory(String newPath) {
 
         System.setProperty("log.dir", newPath) ;
+
+        if (LogManager.getContext(false) instanceof LoggerContext loggerContext && loggerContext.isStarted()) {
+
+            loggerContext.reconfigure() ;
+        }
     }
 
     // ERROR LEVEL
@@ -85,6 +148,11 @@ public final class AkiLogger {
         logger.error(msg, param) ;
     }
 
+    public void error(Supplier<String> msgSupplier) {       // Supplier is only called when ERROR is enabled
+
+        if (logger.isErrorEnabled()) logger.error(msgSupplier.get()) ;
+    }
+
     public String errorAndGet(String msg) {
 
         logger.error(msg) ;
@@ -101,15 +169,46 @@ public final class AkiLogger {
 
     public String errorAndGet(String msg, Object... param) {
 
-        String formattedMsg = formatMessage(msg, param) ;
+        return logAndGet(Level.ERROR, msg, param) ;
+    }
 
-        logger.error(formattedMsg) ;
+    public Supplier<String> errorAndGetLazily(String msg, Object... param) {    // Format only when logged or read
 
-        return formattedMsg ;
+        AkiLazyMessage lazyMessage = new AkiLazyMessage(null, msg, param) ;
+
+        if (logger.isErrorEnabled()) logger.error(lazyMessage) ;
+
+        return lazyMessage ;
     }
 
     public void errorWithStack(String msg, Throwable e) {       // Log exception whole Stack
 
+        if (!logger.isErrorEnabled()) return ;
+
+        if (!admitError(msg, e)) return ;
+
+        // Let the layout write the exception as a typed field instead of a rendered text block
+        if (STRUCTURED) {
+
+            logger.error(msg, e) ;
+
+            return ;
+        }
+
+        if (GARBAGE_FREE) {
+
+            AkiReusableMessage message = AkiReusableMessage.acquire() ;
+            try {
+
+                logger.error(message.withStack(msg, e)) ;
+            } finally {
+
+                message.release() ;
+            }
+
+            return ;
+        }
+
         StringBuilder stringBuilder = stackException(msg, e) ;
 
         logger.error(stringBuilder.toString()) ;
@@ -117,32 +216,39 @@ public final class AkiLogger {
 
     public String errorWithStackAndGet(String msg, Throwable e) {
 
-        StringBuilder stringBuilder = stackException(msg, e) ;
+        if (GARBAGE_FREE && !AkiStackTraces.DEDUPE) {
 
-        logger.error(stringBuilder.toString()) ;
+            AkiReusableMessage message = AkiReusableMessage.acquire() ;
+            try {
 
-        return stringBuilder.toString() ;
-    }
+                return logReusableAndGet(Level.ERROR, message.withStack(msg, e)) ;
+            } finally {
 
-    private StringBuilder stackException(String msg, Throwable e) {
+                message.release() ;
+            }
+        }
 
-        StringBuilder stringBuilder = new StringBuilder(msg)
-                .append("\nException: ")
-                .append(e.getClass().getName())
-                .append("\nMessage: ")
-                .append(e.getMessage())
-                .append("\nStack trace:\n") ;
+        // With dedupe on the log may only refer to an earlier identical trace, the caller still gets the frames
+        String stackMsg = AkiStackTraces.appendFullTo(new StringBuilder(256), msg, e).toString() ;
 
-        for (StackTraceElement element : e.getStackTrace()) {
+        if (STRUCTURED) logger.error(msg, e) ;
+        else if (AkiStackTraces.DEDUPE) logger.error(stackException(msg, e).toString()) ;
+        else logger.error(stackMsg) ;
 
-            stringBuilder.append("\tat ").append(element.toString()).append("\n") ;
-        }
+        return stackMsg ;
+    }
+
+    private StringBuilder stackException(String msg, Throwable e) {
 
-        return stringBuilder ;
+        return AkiStackTraces.appendTo(new StringBuilder(256), msg, e) ;
     }
 
     public void errorRootCause(String msg, Throwable e) {           // Log exception main cause
 
+        if (!logger.isErrorEnabled()) return ;
+
+        if (!admitError(msg, e)) return ;
+
         Throwable rootCause = getRootCause(e) ;
 
         logger.error("{} Root cause: {}", msg, rootCause.getMessage(), rootCause) ;
@@ -159,6 +265,26 @@ public final class AkiLogger {
         return formattedMsg ;
     }
 
+    // Ask the sampler (if any) before doing the expensive work, and report what it suppressed so far
+    private boolean admitError(String msg, Throwable e) {
+
+        AkiLogSampler sampler = errorSampler ;
+        if (sampler == null) return true ;
+
+        long suppressed = sampler.admit(msg, e, this) ;
+        if (suppressed < 0) return false ;
+
+        if (suppressed > 0) reportSuppressed(suppressed, msg) ;
+
+        return true ;
+    }
+
+    // Summary of the events a sampler suppressed since the group's last report
+    void reportSuppressed(long suppressed, String msg) {
+
+        logger.warn("Suppressed {} similar events of: {}", suppressed, msg) ;
+    }
+
     private Throwable getRootCause(Throwable e) {
 
         Throwable cause = e ;
@@ -173,24 +299,21 @@ public final class AkiLogger {
 
     public void errorWithPrefix(String prefix, String msg, Object... param) {
 
-        String prefixString = getDefaultPrefix(prefix) ;
-
-        String formattedMsg = formatMessage(msg, param) ;
-
-        logger.error("[{}] {}", prefixString, formattedMsg) ;
+        logWithPrefix(Level.ERROR, prefix, msg, param) ;
     }
 
     public String errorWithPrefixAndGet(String prefix, String msg, Object... param) {
 
-        String prefixString = getDefaultPrefix(prefix) ;
+        return logWithPrefixAndGet(Level.ERROR, prefix, msg, param) ;
+    }
 
-        String formattedMsg = formatMessage(msg, param) ;
+    public Supplier<String> errorWithPrefixAndGetLazily(String prefix, String msg, Object... param) {
 
-        String formattedMsgWithPrefix = "[" + prefixString + "] " + formattedMsg ;
+        AkiLazyMessage lazyMessage = new AkiLazyMessage(getDefaultPrefix(prefix), msg, param) ;
 
-        logger.error(formattedMsgWithPrefix) ;
+        if (logger.isErrorEnabled()) logger.error(lazyMessage) ;
 
-        return formattedMsgWithPrefix;
+        return lazyMessage ;
     }
 
     // WARN LEVEL
@@ -204,6 +327,11 @@ public final class AkiLogger {
         logger.warn(msg, param) ;
     }
 
+    public void warn(Supplier<String> msgSupplier) {        // Supplier is only called when WARN is enabled
+
+        if (logger.isWarnEnabled()) logger.warn(msgSupplier.get()) ;
+    }
+
     public String warnAndGet(String msg) {
 
         logger.warn(msg) ;
@@ -213,33 +341,35 @@ public final class AkiLogger {
 
     public String warnAndGet(String msg, Object... param) {
 
-        String formattedMsg = formatMessage(msg, param) ;
+        return logAndGet(Level.WARN, msg, param) ;
+    }
 
-        logger.warn(msg, param) ;
+    public Supplier<String> warnAndGetLazily(String msg, Object... param) {
 
-        return formattedMsg ;
-    }
+        AkiLazyMessage lazyMessage = new AkiLazyMessage(null, msg, param) ;
 
-    public void warnWithPrefix(String prefix, String msg, Object... param) {
+        if (logger.isWarnEnabled()) logger.warn(lazyMessage) ;
 
-        String prefixString = getDefaultPrefix(prefix) ;
+        return lazyMessage ;
+    }
 
-        String formattedMsg = formatMessage(msg, param) ;
+    public void warnWithPrefix(String prefix, String msg, Object... param) {
 
-        logger.warn("[{}] {}", prefixString, formattedMsg) ;
+        logWithPrefix(Level.WARN, prefix, msg, param) ;
     }
 
     public String warnWithPrefixAndGet(String prefix, String msg, Object... param) {
 
-        String prefixString = getDefaultPrefix(prefix) ;
+        return logWithPrefixAndGet(Level.WARN, prefix, msg, param) ;
+    }
 
-        String formattedMsg = formatMessage(msg, param) ;
+    public Supplier<String> warnWithPrefixAndGetLazily(String prefix, String msg, Object... param) {
 
-        String formattedMsgWithPrefix = "[" + prefixString + "] " + formattedMsg ;
+        AkiLazyMessage lazyMessage = new AkiLazyMessage(getDefaultPrefix(prefix), msg, param) ;
 
-        logger.warn(formattedMsgWithPrefix) ;
+        if (logger.isWarnEnabled()) logger.warn(lazyMessage) ;
 
-        return formattedMsgWithPrefix ;
+        return lazyMessage ;
     }
 
     // INFO LEVEL
@@ -253,6 +383,11 @@ public final class AkiLogger {
         logger.info(msg, param) ;
     }
 
+    public void info(Supplier<String> msgSupplier) {        // Supplier is only called when INFO is enabled
+
+        if (logger.isInfoEnabled()) logger.info(msgSupplier.get()) ;
+    }
+
     public String infoAndGet(String msg) {
 
         logger.info(msg) ;
@@ -262,45 +397,156 @@ public final class AkiLogger {
 
     public String infoAndGet(String msg, Object... param) {
 
-        String formattedMsg = formatMessage(msg, param) ;
+        return logAndGet(Level.INFO, msg, param) ;
+    }
 
-        logger.info(formattedMsg) ;
+    public Supplier<String> infoAndGetLazily(String msg, Object... param) {
 
-        return formattedMsg ;
-    }
+        AkiLazyMessage lazyMessage = new AkiLazyMessage(null, msg, param) ;
 
-    public void infoWithPrefix(String prefix, String msg, Object... param) {
+        if (logger.isInfoEnabled()) logger.info(lazyMessage) ;
 
-        String prefixString = getDefaultPrefix(prefix) ;
+        return lazyMessage ;
+    }
 
-        String formattedMsg = formatMessage(msg, param) ;
+    public void infoWithPrefix(String prefix, String msg, Object... param) {
 
-        logger.info("[{}] {}", prefixString, formattedMsg) ;
+        logWithPrefix(Level.INFO, prefix, msg, param) ;
     }
 
     public String infoWithPrefixAndGet(String prefix, String msg, Object... param) {
 
-        String prefixString = getDefaultPrefix(prefix) ;
+        return logWithPrefixAndGet(Level.INFO, prefix, msg, param) ;
+    }
 
-        String formattedMsg = formatMessage(msg, param) ;
+    public Supplier<String> infoWithPrefixAndGetLazily(String prefix, String msg, Object... param) {
 
-        String formattedMsgWithPrefix = "[" + prefixString + "] " + formattedMsg ;
+        AkiLazyMessage lazyMessage = new AkiLazyMessage(getDefaultPrefix(prefix), msg, param) ;
 
-        logger.info(formattedMsgWithPrefix) ;
+        if (logger.isInfoEnabled()) logger.info(lazyMessage) ;
 
-        return formattedMsgWithPrefix ;
+        return lazyMessage ;
     }
 
     // USER OPERATION
-    public void logNormalOperation(String operation, String userId) {
+    /**
+     * Record a user operation.
+     * @return With the audit channel enabled (-Dlog.audit.enabled=true), future completed with the record's sequence
+     *         number once it is fsynced, or completed exceptionally if it could not be written.
+     *         Otherwise the operation goes to the general log and the future is already completed with null.
+     */
+    public CompletableFuture<Long> logNormalOperation(String operation, String userId) {
+
+        // Dedicated, durable audit channel instead of the general log
+        if (AkiAuditLog.isEnabled()) return AkiAuditLog.getInstance().append(AkiAuditRecord.Type.NORMAL, operation, userId, null) ;
 
         info("User [ID = {}] performed operation: {}", userId, operation) ;
+
+        return CompletableFuture.completedFuture(null) ;
     }
 
-    public void logSensitiveOperation(String operation, String adminId, String targetId) {
+    // Same as logNormalOperation(String, String), for an operation of an admin on a target
+    public CompletableFuture<Long> logSensitiveOperation(String operation, String adminId, String targetId) {
+
+        if (AkiAuditLog.isEnabled()) return AkiAuditLog.getInstance().append(AkiAuditRecord.Type.SENSITIVE, operation, adminId, targetId) ;
 
         warn("Admin [ID = {}] performed sensitive operation: {} on target: {}",
                 adminId, operation, targetId) ;
+
+        return CompletableFuture.completedFuture(null) ;
+    }
+
+    // Shared implementations of the level-specific methods above
+    private String logAndGet(Level level, String msg, Object[] param) {
+
+        if (GARBAGE_FREE) {
+
+            AkiReusableMessage message = AkiReusableMessage.acquire() ;
+            try {
+
+                return logReusableAndGet(level, message.withFormat(msg, param)) ;
+            } finally {
+
+                message.release() ;
+            }
+        }
+
+        // Keep template and arguments for the layout
+        if (STRUCTURED) {
+
+            AkiLazyMessage lazyMessage = new AkiLazyMessage(null, msg, param) ;
+
+            logger.log(level, lazyMessage) ;
+
+            return lazyMessage.get() ;
+        }
+
+        String formattedMsg = formatMessage(msg, param) ;
+
+        logger.log(level, formattedMsg) ;
+
+        return formattedMsg ;
+    }
+
+    private void logWithPrefix(Level level, String prefix, String msg, Object[] param) {
+
+        if (!logger.isEnabled(level)) return ;
+
+        if (GARBAGE_FREE) {
+
+            AkiReusableMessage message = AkiReusableMessage.acquire() ;
+            try {
+
+                logger.log(level, message.withPrefix(getDefaultPrefix(prefix), msg, param)) ;
+            } finally {
+
+                message.release() ;
+            }
+
+            return ;
+        }
+
+        logger.log(level, new AkiLazyMessage(getDefaultPrefix(prefix), msg, param)) ;
+    }
+
+    private String logWithPrefixAndGet(Level level, String prefix, String msg, Object[] param) {
+
+        if (GARBAGE_FREE) {
+
+            AkiReusableMessage message = AkiReusableMessage.acquire() ;
+            try {
+
+                return logReusableAndGet(level, message.withPrefix(getDefaultPrefix(prefix), msg, param)) ;
+            } finally {
+
+                message.release() ;
+            }
+        }
+
+        if (STRUCTURED) {
+
+            AkiLazyMessage lazyMessage = new AkiLazyMessage(getDefaultPrefix(prefix), msg, param) ;
+
+            logger.log(level, lazyMessage) ;
+
+            return lazyMessage.get() ;
+        }
+
+        String formattedMsgWithPrefix = formatMessageWithPrefix(prefix, msg, param) ;
+
+        logger.log(level, formattedMsgWithPrefix) ;
+
+        return formattedMsgWithPrefix ;
+    }
+
+    // The caller needs a String anyway, log4j still gets the pooled message to copy from
+    private String logReusableAndGet(Level level, AkiReusableMessage message) {
+
+        String formattedMsg = message.getFormattedMessage() ;
+
+        logger.log(level, message) ;
+
+        return formattedMsg ;
     }
 
     // Format message with param using placeholder
@@ -309,6 +555,11 @@ public final class AkiLogger {
         return ParameterizedMessage.format(msg, param) ;
     }
 
+    private String formatMessageWithPrefix(String prefix, String msg, Object... param) {
+
+        return "[" + getDefaultPrefix(prefix) + "] " + formatMessage(msg, param) ;
+    }
+
     private String getDefaultPrefix(String prefix) {
 
         if (prefix == null || prefix.isEmpty()) return "Prefix" ;
@@ -1,14 +1,73 @@
 package com.akichou.utils.log;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
 public final class AkiLoggerFactory {
 
+    // Registries of created loggers, one instance per name / class
+    private static final ConcurrentMap<String, AkiLogger> NAMED_LOGGERS = new ConcurrentHashMap<>() ;
+    private static final ConcurrentMap<String, AkiLogger> CLASS_LOGGERS = new ConcurrentHashMap<>() ;
+
+    // Lookup statistics
+    private static final LongAdder HIT_COUNT = new LongAdder() ;
+    private static final LongAdder MISS_COUNT = new LongAdder() ;
+
+    private AkiLoggerFactory() {}
+
     public static AkiLogger getAkiLogger(String className) {
 
-        return new AkiLogger(className) ;
+        // Fast path : plain get() doesn't lock the bin like computeIfAbsent() does
+        AkiLogger akiLogger = NAMED_LOGGERS.get(className) ;
+        if (akiLogger != null) {
+
+            HIT_COUNT.increment() ;
+
+            return akiLogger ;
+        }
+
+        return NAMED_LOGGERS.computeIfAbsent(className, name -> {
+
+            MISS_COUNT.increment() ;
+
+            return new AkiLogger(name) ;
+        }) ;
     }
 
     public static AkiLogger getAkiLogger(Class<?> clazz) {
 
-        return new AkiLogger(clazz);
+        AkiLogger akiLogger = CLASS_LOGGERS.get(clazz.getName()) ;
+        if (akiLogger != null) {
+
+            HIT_COUNT.increment() ;
+
+            return akiLogger ;
+        }
+
+        return CLASS_LOGGERS.computeIfAbsent(clazz.getName(), name -> {
+
+            MISS_COUNT.increment() ;
+
+            return new AkiLogger(clazz) ;
+        }) ;
+    }
+
+    // Number of lookups served from the registry
+    public static long getHitCount() {
+
+        return HIT_COUNT.sum() ;
+    }
+
+    // Number of lookups that had to create a new logger
+    public static long getMissCount() {
+
+        return MISS_COUNT.sum() ;
+    }
+
+    // Number of distinct loggers currently registered
+    public static int getLoggerCount() {
+
+        return NAMED_LOGGERS.size() + CLASS_LOGGERS.size() ;
     }
 }
@@ -0,0 +1,139 @@
+package com.akichou.utils.log;
+
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ReusableMessage;
+import org.apache.logging.log4j.message.ReusableMessageFactory;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.StringBuilders;
+
+/**
+ * Thread-local, reusable message used by the garbage-free mode of {@link AkiLogger}.
+ * The text is rendered into a pooled buffer and handed to log4j, which copies it into its own reusable event.
+ */
+final class AkiReusableMessage implements ReusableMessage {
+
+    private static final long serialVersionUID = 1L ;
+
+    // Enable with -Dlog.garbageFree=true (read once, like log4j's own garbage-free switches)
+    static final boolean ENABLED = Boolean.getBoolean("log.garbageFree") ;
+
+    // Buffers grown beyond this are shrunk on release, so idle (or short-lived virtual) threads don't pin big arrays
+    private static final int MAX_RETAINED_SIZE = Integer.getInteger("log.garbageFree.maxBufferSize", 4096) ;
+
+    private static final int INITIAL_SIZE = 256 ;
+
+    private static final ThreadLocal<AkiReusableMessage> POOL = ThreadLocal.withInitial(AkiReusableMessage::new) ;
+
+    private final StringBuilder buffer = new StringBuilder(INITIAL_SIZE) ;
+
+    private boolean inUse ;
+
+    private AkiReusableMessage() {}
+
+    // Fetch the calling thread's message, or a fresh one when re-entered (ex: a parameter's toString() logs too)
+    static AkiReusableMessage acquire() {
+
+        AkiReusableMessage message = POOL.get() ;
+        if (message.inUse) return new AkiReusableMessage() ;
+
+        message.inUse = true ;
+
+        return message ;
+    }
+
+    void release() {
+
+        StringBuilders.trimToMaxSize(buffer, MAX_RETAINED_SIZE) ;
+        buffer.setLength(0) ;
+
+        inUse = false ;
+    }
+
+    // Render "[prefix] formatted message" into the buffer
+    AkiReusableMessage withPrefix(String prefix, String format, Object[] params) {
+
+        buffer.append('[').append(prefix).append("] ") ;
+
+        return withFormat(format, params) ;
+    }
+
+    // Render "formatted message" into the buffer using log4j's own reusable parameterized message
+    AkiReusableMessage withFormat(String format, Object[] params) {
+
+        Message parameterized = ReusableMessageFactory.INSTANCE.newMessage(format, params) ;
+        try {
+
+            if (parameterized instanceof StringBuilderFormattable formattable) formattable.formatTo(buffer) ;
+            else buffer.append(parameterized.getFormattedMessage()) ;
+        } finally {
+
+            ReusableMessageFactory.release(parameterized) ;
+        }
+
+        return this ;
+    }
+
+    // Render the whole stack trace of the exception into the buffer
+    AkiReusableMessage withStack(String msg, Throwable e) {
+
+        AkiStackTraces.appendTo(buffer, msg, e) ;
+
+        return this ;
+    }
+
+    @Override
+    public void formatTo(StringBuilder stringBuilder) {
+
+        stringBuilder.append(buffer) ;
+    }
+
+    @Override
+    public String getFormattedMessage() {
+
+        return buffer.toString() ;
+    }
+
+    @Override
+    public String getFormat() {
+
+        return null ;
+    }
+
+    @Override
+    public Object[] getParameters() {
+
+        return null ;
+    }
+
+    @Override
+    public Throwable getThrowable() {
+
+        return null ;
+    }
+
+    // Parameters are already rendered into the buffer, so there is nothing to hand over
+    @Override
+    public Object[] swapParameters(Object[] emptyReplacement) {
+
+        return emptyReplacement ;
+    }
+
+    @Override
+    public short getParameterCount() {
+
+        return 0 ;
+    }
+
+    @Override
+    public Message memento() {
+
+        return new SimpleMessage(getFormattedMessage()) ;
+    }
+
+    @Override
+    public String toString() {
+
+        return getFormattedMessage() ;
+    }
+}
@@ -0,0 +1,183 @@
+package com.akichou.utils.log;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders the "whole stack" block of {@link AkiLogger#errorWithStack(String, Throwable)}.
+ * <p>
+ * Tuned with the following system properties :
+ * <ul>
+ *     <li>{@code log.stack.maxDepth} - frames written per trace, the rest is summarized (default : all)</li>
+ *     <li>{@code log.stack.excludePackages} - comma separated class name prefixes collapsed into one line,
+ *         ex : {@code org.springframework.,jdk.internal.reflect.}</li>
+ *     <li>{@code log.stack.dedupe} - {@code true} to write a trace in full only the first time its fingerprint
+ *         (exception classes plus frame hashes) is seen, later ones only refer to it by id with a count</li>
+ *     <li>{@code log.stack.cacheSize} - fingerprints remembered for deduplication (default 1024)</li>
+ * </ul>
+ * Deduplication only applies to what is logged, {@link AkiLogger#errorWithStackAndGet(String, Throwable)} returns the
+ * frames. All of them apply to the text output only : the JSON layout writes every frame of every exception.
+ */
+final class AkiStackTraces {
+
+    private static final int MAX_DEPTH = Integer.getInteger("log.stack.maxDepth", Integer.MAX_VALUE) ;
+    private static final String[] EXCLUDED_PREFIXES = parsePrefixes(System.getProperty("log.stack.excludePackages")) ;
+    static final boolean DEDUPE = Boolean.getBoolean("log.stack.dedupe") ;
+    private static final int CACHE_SIZE = Integer.getInteger("log.stack.cacheSize", 1024) ;
+
+    // Fingerprint -> first occurrence, cleared as a whole when full (the next occurrences are then written in full again)
+    private static final ConcurrentMap<Long, SeenTrace> SEEN_TRACES = new ConcurrentHashMap<>() ;
+    private static final AtomicLong NEXT_ID = new AtomicLong() ;
+
+    private AkiStackTraces() {}
+
+    // Text written to the log : an already seen trace is only referred to when dedupe is on
+    static StringBuilder appendTo(StringBuilder stringBuilder, String msg, Throwable e) {
+
+        return appendTo(stringBuilder, msg, e, DEDUPE) ;
+    }
+
+    // Text handed back to callers : always the frames, and the dedupe cache is left untouched
+    static StringBuilder appendFullTo(StringBuilder stringBuilder, String msg, Throwable e) {
+
+        return appendTo(stringBuilder, msg, e, false) ;
+    }
+
+    static StringBuilder appendTo(StringBuilder stringBuilder, String msg, Throwable e, boolean dedupe) {
+
+        stringBuilder.append(msg)
+                     .append("\nException: ")
+                     .append(e.getClass().getName())
+                     .append("\nMessage: ")
+                     .append(e.getMessage()) ;
+
+        StackTraceElement[] stackTrace = e.getStackTrace() ;
+
+        if (dedupe) {
+
+            long fingerprint = AkiThrowableFingerprint.of(e, stackTrace, Integer.MAX_VALUE) ;
+
+            SeenTrace seenTrace = SEEN_TRACES.get(fingerprint) ;
+            if (seenTrace != null) return appendReference(stringBuilder, seenTrace) ;
+
+            if (SEEN_TRACES.size() >= CACHE_SIZE) SEEN_TRACES.clear() ;
+
+            seenTrace = new SeenTrace(NEXT_ID.incrementAndGet()) ;
+
+            // Another thread may have registered it meanwhile, keep its id so both refer to the same trace
+            SeenTrace previous = SEEN_TRACES.putIfAbsent(fingerprint, seenTrace) ;
+            if (previous != null) return appendReference(stringBuilder, previous) ;
+
+            stringBuilder.append("\nStack trace #").append(seenTrace.id).append(":\n") ;
+        } else {
+
+            stringBuilder.append("\nStack trace:\n") ;
+        }
+
+        appendFrames(stringBuilder, stackTrace) ;
+
+        return stringBuilder ;
+    }
+
+    private static StringBuilder appendReference(StringBuilder stringBuilder, SeenTrace seenTrace) {
+
+        long count = seenTrace.count.incrementAndGet() ;
+
+        return stringBuilder.append("\nStack trace: same as #").append(seenTrace.id)
+                            .append(" (seen ").append(count).append(" times)\n") ;
+    }
+
+    private static void appendFrames(StringBuilder stringBuilder, StackTraceElement[] stackTrace) {
+
+        int written = 0 ;
+        int excluded = 0 ;
+
+        for (int i = 0 ; i < stackTrace.length ; i ++) {
+
+            if (written >= MAX_DEPTH) {
+
+                appendExcluded(stringBuilder, excluded) ;
+
+                stringBuilder.append("\t... ").append(stackTrace.length - i).append(" more\n") ;
+
+                return ;
+            }
+
+            StackTraceElement element = stackTrace[i] ;
+
+            if (isExcluded(element.getClassName())) {
+
+                excluded ++ ;
+
+                continue ;
+            }
+
+            appendExcluded(stringBuilder, excluded) ;
+            excluded = 0 ;
+
+            stringBuilder.append("\tat ") ;
+            appendFrame(stringBuilder, element) ;
+            stringBuilder.append('\n') ;
+
+            written ++ ;
+        }
+
+        appendExcluded(stringBuilder, excluded) ;
+    }
+
+    private static void appendExcluded(StringBuilder stringBuilder, int excluded) {
+
+        if (excluded > 0) stringBuilder.append("\t... ").append(excluded).append(" framework frames omitted\n") ;
+    }
+
+    // Same text as StackTraceElement.toString() for the usual cases, without building intermediate Strings
+    private static void appendFrame(StringBuilder stringBuilder, StackTraceElement element) {
+
+        if (element.getModuleName() != null) stringBuilder.append(element.getModuleName()).append('/') ;
+
+        stringBuilder.append(element.getClassName()).append('.').append(element.getMethodName()).append('(') ;
+
+        if (element.isNativeMethod()) stringBuilder.append("Native Method") ;
+        else if (element.getFileName() == null) stringBuilder.append("Unknown Source") ;
+        else {
+
+            stringBuilder.append(element.getFileName()) ;
+            if (element.getLineNumber() >= 0) stringBuilder.append(':').append(element.getLineNumber()) ;
+        }
+
+        stringBuilder.append(')') ;
+    }
+
+    private static boolean isExcluded(String className) {
+
+        for (String prefix : EXCLUDED_PREFIXES) {
+
+            if (className.startsWith(prefix)) return true ;
+        }
+
+        return false ;
+    }
+
+    private static String[] parsePrefixes(String value) {
+
+        if (value == null || value.isBlank()) return new String[0] ;
+
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(prefix -> !prefix.isEmpty())
+                .toArray(String[]::new) ;
+    }
+
+    private static final class SeenTrace {
+
+        private final long id ;
+        private final AtomicLong count = new AtomicLong(1) ;
+
+        private SeenTrace(long id) {
+
+            this.id = id ;
+        }
+    }
+}
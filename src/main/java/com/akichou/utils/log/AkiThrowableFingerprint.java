@@ -0,0 +1,59 @@
+package com.akichou.utils.log;
+
+/**
+ * 64-bit fingerprint of an exception "shape" : exception classes of the cause chain plus the hashes of their frames.
+ * Two exceptions thrown from the same place with different messages share a fingerprint.
+ */
+final class AkiThrowableFingerprint {
+
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L ;
+
+    private static final int MAX_CAUSE_DEPTH = 8 ;
+
+    private AkiThrowableFingerprint() {}
+
+    static long of(Throwable e) {
+
+        return of(e, e.getStackTrace(), Integer.MAX_VALUE) ;
+    }
+
+    // Fingerprint from an already fetched stack (Throwable.getStackTrace() clones it on every call), up to maxDepth frames
+    static long of(Throwable e, StackTraceElement[] stackTrace, int maxDepth) {
+
+        long hash = mix(e.getClass().getName().hashCode()) ;
+
+        int depth = Math.min(stackTrace.length, maxDepth) ;
+        for (int i = 0 ; i < depth ; i ++) {
+
+            // StackTraceElement.hashCode() only combines the (cached) hashes of its strings and the line number
+            hash = hash * MULTIPLIER + stackTrace[i].hashCode() ;
+        }
+
+        Throwable cause = e.getCause() ;
+        for (int i = 0 ; cause != null && cause != e && i < MAX_CAUSE_DEPTH ; i ++) {
+
+            hash = hash * MULTIPLIER + cause.getClass().getName().hashCode() ;
+            cause = cause.getCause() ;
+        }
+
+        return mix(hash) ;
+    }
+
+    // Combine with the message template, so different call sites logging the same exception are kept apart
+    static long of(String msg, Throwable e) {
+
+        return mix(of(e) * MULTIPLIER + (msg == null ? 0 : msg.hashCode())) ;
+    }
+
+    // MurmurHash3 finalizer
+    static long mix(long hash) {
+
+        hash ^= hash >>> 33 ;
+        hash *= 0xFF51AFD7ED558CCDL ;
+        hash ^= hash >>> 33 ;
+        hash *= 0xC4CEB9FE1A85EC53L ;
+        hash ^= hash >>> 33 ;
+
+        return hash ;
+    }
+}
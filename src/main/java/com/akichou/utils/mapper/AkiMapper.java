@@ -0,0 +1,31 @@
+package com.akichou.utils.mapper;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an interface whose single-argument methods are implemented at compile time by {@link AkiMapperProcessor},
+ * as plain getter / setter (or canonical constructor) calls matched by property name.
+ *
+ * <pre>
+ * {@code
+ *     @AkiMapper
+ *     public interface UserMapper {
+ *
+ *         UserDto toDto(User user) ;
+ *     }
+ *
+ *     UserMapper userMapper = AkiMappers.getMapper(UserMapper.class) ;
+ * }
+ * </pre>
+ * The generated UserMapperImpl is also picked up by {@link com.akichou.utils.util.AkiEntityCopyUtil#copyEntity(Object, Class)}
+ * for the (User, UserDto) pair.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface AkiMapper {
+}
@@ -0,0 +1,391 @@
+package com.akichou.utils.mapper;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates the implementation of every {@link AkiMapper} interface : for each abstract method taking one bean and
+ * returning another, plain Java calls from the source getters (or record accessors) to the target setters (or record
+ * canonical constructor), matched by property name and assignable type. Nothing is resolved at runtime.
+ * <p>
+ * Generated classes are named after the interface ({@code UserMapper} -> {@code UserMapperImpl}, nested
+ * {@code Outer.UserMapper} -> {@code Outer_UserMapperImpl}) and listed in
+ * {@code META-INF/services/com.akichou.utils.mapper.AkiMapperRegistration}.
+ * Registered through {@code META-INF/services/javax.annotation.processing.Processor}, so it runs wherever this
+ * starter is on the compile classpath (from JDK 23 on, javac needs {@code -proc:full} for that).
+ */
+@SupportedAnnotationTypes("com.akichou.utils.mapper.AkiMapper")
+public class AkiMapperProcessor extends AbstractProcessor {
+
+    private static final String REGISTRATION_SERVICE = "META-INF/services/" + AkiMapperRegistration.class.getName() ;
+
+    private static final String GENERATED_ANNOTATION = "javax.annotation.processing.Generated" ;
+
+    // Generated implementations of every round, written to the service file once processing is over
+    private final Set<String> generatedMappers = new TreeSet<>() ;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+
+        return SourceVersion.latestSupported() ;
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+        if (roundEnv.processingOver()) {
+
+            writeServiceFile() ;
+
+            return false ;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(AkiMapper.class)) {
+
+            if (element.getKind() != ElementKind.INTERFACE) {
+
+                error(element, "@AkiMapper can only be placed on interfaces") ;
+
+                continue ;
+            }
+
+            try {
+
+                generateMapper((TypeElement) element) ;
+            } catch (MapperDefinitionException e) {
+
+                error(e.element, e.getMessage()) ;
+            } catch (IOException e) {
+
+                error(element, "Failed to write the mapper implementation: " + e.getMessage()) ;
+            }
+        }
+
+        return true ;
+    }
+
+    private void generateMapper(TypeElement mapperType) throws IOException {
+
+        if (!mapperType.getTypeParameters().isEmpty()) {
+
+            throw new MapperDefinitionException(mapperType, "@AkiMapper interfaces cannot declare type parameters") ;
+        }
+
+        Elements elements = processingEnv.getElementUtils() ;
+
+        String packageName = elements.getPackageOf(mapperType).getQualifiedName().toString() ;
+        String implementationName = implementationName(mapperType) ;
+        String qualifiedName = packageName.isEmpty() ? implementationName : packageName + "." + implementationName ;
+
+        StringBuilder mappingMethods = new StringBuilder() ;
+        StringBuilder registrations = new StringBuilder() ;
+
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(mapperType))) {
+
+            if (!method.getModifiers().contains(Modifier.ABSTRACT)) continue ;
+
+            appendMappingMethod(mappingMethods, method) ;
+
+            registrations.append("        mappingSink.add(")
+                         .append(classLiteral(method.getParameters().get(0).asType())).append(", ")
+                         .append(classLiteral(method.getReturnType())).append(", this::")
+                         .append(method.getSimpleName()).append(") ;\n") ;
+        }
+
+        StringBuilder code = new StringBuilder() ;
+
+        if (!packageName.isEmpty()) code.append("package ").append(packageName).append(";\n\n") ;
+
+        if (elements.getTypeElement(GENERATED_ANNOTATION) != null) {
+
+            code.append("@").append(GENERATED_ANNOTATION).append("(\"").append(AkiMapperProcessor.class.getName()).append("\")\n") ;
+        }
+
+        code.append("public final class ").append(implementationName)
+            .append(" implements ").append(mapperType.getQualifiedName())
+            .append(", ").append(AkiMapperRegistration.class.getName()).append(" {\n")
+            .append(mappingMethods)
+            .append("\n    @Override\n")
+            .append("    @SuppressWarnings(\"unchecked\")\n")
+            .append("    public void registerMappings(").append(AkiMapperRegistration.class.getName()).append(".MappingSink mappingSink) {\n\n")
+            .append(registrations)
+            .append("    }\n")
+            .append("}\n") ;
+
+        JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(qualifiedName, mapperType) ;
+        try (Writer writer = sourceFile.openWriter()) {
+
+            writer.write(code.toString()) ;
+        }
+
+        generatedMappers.add(qualifiedName) ;
+    }
+
+    private void appendMappingMethod(StringBuilder code, ExecutableElement method) {
+
+        if (method.getParameters().size() != 1 || method.getReturnType().getKind() != TypeKind.DECLARED) {
+
+            throw new MapperDefinitionException(method, "@AkiMapper methods must take one source object and return the target object") ;
+        }
+
+        TypeMirror sourceType = method.getParameters().get(0).asType() ;
+        TypeMirror targetType = method.getReturnType() ;
+
+        if (sourceType.getKind() != TypeKind.DECLARED) {
+
+            throw new MapperDefinitionException(method, "The source of an @AkiMapper method must be a class or record") ;
+        }
+
+        TypeElement targetElement = (TypeElement) ((DeclaredType) targetType).asElement() ;
+        Map<String, TypeMirror> sourceProperties = new LinkedHashMap<>() ;
+        Map<String, String> sourceReaders = readers((DeclaredType) sourceType, sourceProperties) ;
+
+        code.append("\n    @Override\n")
+            .append("    public ").append(targetType).append(" ").append(method.getSimpleName())
+            .append("(").append(sourceType).append(" source) {\n\n")
+            .append("        if (source == null) return null ;\n\n") ;
+
+        if (targetElement.getKind() == ElementKind.RECORD) {
+
+            appendRecordCreation(code, targetElement, sourceReaders, sourceProperties) ;
+        } else {
+
+            appendBeanCopy(code, method, (DeclaredType) targetType, targetElement, sourceReaders, sourceProperties) ;
+        }
+
+        code.append("    }\n") ;
+    }
+
+    // Canonical constructor, components without an assignable source property get their default value
+    private void appendRecordCreation(StringBuilder code,
+                                      TypeElement targetElement,
+                                      Map<String, String> sourceReaders,
+                                      Map<String, TypeMirror> sourceProperties) {
+
+        Types types = processingEnv.getTypeUtils() ;
+
+        code.append("        return new ").append(types.erasure(targetElement.asType())).append("(") ;
+
+        List<? extends RecordComponentElement> components = targetElement.getRecordComponents() ;
+        for (int i = 0 ; i < components.size() ; i ++) {
+
+            RecordComponentElement component = components.get(i) ;
+            String name = component.getSimpleName().toString() ;
+
+            if (i > 0) code.append(",\n            ") ;
+
+            if (sourceReaders.containsKey(name) && types.isAssignable(sourceProperties.get(name), component.asType())) {
+
+                code.append("source.").append(sourceReaders.get(name)).append("()") ;
+            } else {
+
+                code.append(defaultValue(component.asType())) ;
+            }
+        }
+
+        code.append(") ;\n") ;
+    }
+
+    private void appendBeanCopy(StringBuilder code,
+                                ExecutableElement method,
+                                DeclaredType targetType,
+                                TypeElement targetElement,
+                                Map<String, String> sourceReaders,
+                                Map<String, TypeMirror> sourceProperties) {
+
+        boolean instantiable = !targetElement.getModifiers().contains(Modifier.ABSTRACT)
+                && ElementFilter.constructorsIn(targetElement.getEnclosedElements()).stream()
+                                .anyMatch(constructor -> constructor.getParameters().isEmpty()
+                                                         && constructor.getModifiers().contains(Modifier.PUBLIC)) ;
+
+        if (!instantiable) {
+
+            throw new MapperDefinitionException(method, targetElement.getQualifiedName() + " needs a public no-arg constructor or to be a record") ;
+        }
+
+        Types types = processingEnv.getTypeUtils() ;
+
+        code.append("        ").append(targetType).append(" target = new ").append(targetType).append("() ;\n\n") ;
+
+        for (ExecutableElement writer : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(targetElement))) {
+
+            String name = writer.getSimpleName().toString() ;
+
+            if (!isAccessor(writer) || !name.startsWith("set") || name.length() == 3 || writer.getParameters().size() != 1) continue ;
+
+            String property = decapitalize(name.substring(3)) ;
+            TypeMirror parameterType = ((ExecutableType) types.asMemberOf(targetType, writer)).getParameterTypes().get(0) ;
+
+            if (!sourceReaders.containsKey(property) || !types.isAssignable(sourceProperties.get(property), parameterType)) continue ;
+
+            code.append("        target.").append(name).append("(source.").append(sourceReaders.get(property)).append("()) ;\n") ;
+        }
+
+        code.append("\n        return target ;\n") ;
+    }
+
+    // Property name -> getter / record accessor name, their types in properties
+    private Map<String, String> readers(DeclaredType sourceType, Map<String, TypeMirror> properties) {
+
+        Types types = processingEnv.getTypeUtils() ;
+        TypeElement sourceElement = (TypeElement) sourceType.asElement() ;
+
+        Map<String, String> readers = new LinkedHashMap<>() ;
+
+        for (ExecutableElement reader : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(sourceElement))) {
+
+            if (!isAccessor(reader) || !reader.getParameters().isEmpty()) continue ;
+
+            String name = reader.getSimpleName().toString() ;
+            TypeMirror returnType = ((ExecutableType) types.asMemberOf(sourceType, reader)).getReturnType() ;
+
+            String property = null ;
+            if (name.startsWith("get") && name.length() > 3 && !name.equals("getClass")) property = decapitalize(name.substring(3)) ;
+            else if (name.startsWith("is") && name.length() > 2 && returnType.getKind() == TypeKind.BOOLEAN) property = decapitalize(name.substring(2)) ;
+
+            if (property == null || returnType.getKind() == TypeKind.VOID) continue ;
+
+            readers.put(property, name) ;
+            properties.put(property, returnType) ;
+        }
+
+        if (sourceElement.getKind() == ElementKind.RECORD) {
+
+            for (RecordComponentElement component : sourceElement.getRecordComponents()) {
+
+                String name = component.getSimpleName().toString() ;
+
+                readers.put(name, component.getAccessor().getSimpleName().toString()) ;
+                properties.put(name, ((ExecutableType) types.asMemberOf(sourceType, component.getAccessor())).getReturnType()) ;
+            }
+        }
+
+        return readers ;
+    }
+
+    private static boolean isAccessor(ExecutableElement method) {
+
+        return method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC) ;
+    }
+
+    // Same rule as java.beans.Introspector : "URL" stays "URL", "Name" becomes "name"
+    private static String decapitalize(String name) {
+
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1))) return name ;
+
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1) ;
+    }
+
+    // Literals are cast, an int constant is not narrowed to byte / short / char in a method invocation
+    private static String defaultValue(TypeMirror type) {
+
+        return switch (type.getKind()) {
+
+            case BOOLEAN -> "false" ;
+            case BYTE, SHORT, CHAR, INT, LONG, FLOAT, DOUBLE -> "(" + type + ") 0" ;
+            default -> "null" ;
+        } ;
+    }
+
+    private String classLiteral(TypeMirror type) {
+
+        return processingEnv.getTypeUtils().erasure(type) + ".class" ;
+    }
+
+    private static String implementationName(TypeElement mapperType) {
+
+        StringBuilder name = new StringBuilder(mapperType.getSimpleName()) ;
+
+        for (Element enclosing = mapperType.getEnclosingElement() ;
+             enclosing.getKind().isClass() || enclosing.getKind().isInterface() ;
+             enclosing = enclosing.getEnclosingElement()) {
+
+            name.insert(0, enclosing.getSimpleName() + "_") ;
+        }
+
+        return name.append("Impl").toString() ;
+    }
+
+    // Keeps the providers of earlier (incremental) compilations that are still in the output directory
+    private void writeServiceFile() {
+
+        if (generatedMappers.isEmpty()) return ;
+
+        Filer filer = processingEnv.getFiler() ;
+        Set<String> providers = new TreeSet<>(generatedMappers) ;
+
+        try {
+
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", REGISTRATION_SERVICE) ;
+            try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+
+                reader.lines()
+                      .map(String::trim)
+                      .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                      .forEach(providers::add) ;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+
+            // No earlier service file
+        }
+
+        try {
+
+            FileObject serviceFile = filer.createResource(StandardLocation.CLASS_OUTPUT, "", REGISTRATION_SERVICE) ;
+            try (Writer writer = serviceFile.openWriter()) {
+
+                for (String provider : providers) writer.write(provider + "\n") ;
+            }
+        } catch (IOException e) {
+
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + REGISTRATION_SERVICE + ": " + e.getMessage()) ;
+        }
+    }
+
+    private void error(Element element, String message) {
+
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element) ;
+    }
+
+    private static final class MapperDefinitionException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L ;
+
+        private final transient Element element ;
+
+        private MapperDefinitionException(Element element, String message) {
+
+            super(message, null, false, false) ;
+
+            this.element = element ;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.akichou.utils.mapper;
+
+import java.util.function.Function;
+
+/**
+ * Implemented by every generated mapper and listed in {@code META-INF/services} by {@link AkiMapperProcessor},
+ * so {@link AkiMappers} finds the mappers through {@link java.util.ServiceLoader}, without classpath scanning.
+ */
+public interface AkiMapperRegistration {
+
+    // Declare every (source, target) mapping method of the mapper
+    void registerMappings(MappingSink mappingSink) ;
+
+    @FunctionalInterface
+    interface MappingSink {
+
+        <S, T> void add(Class<S> sourceClass, Class<T> targetClass, Function<? super S, ? extends T> mapping) ;
+    }
+}
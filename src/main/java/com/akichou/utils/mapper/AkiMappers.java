@@ -0,0 +1,99 @@
+package com.akichou.utils.mapper;
+
+import com.akichou.utils.log.AkiLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.Function;
+
+/**
+ * Access to the mappers generated from {@link AkiMapper} interfaces, loaded once through {@link ServiceLoader}.
+ */
+public final class AkiMappers {
+
+    private AkiMappers() {}
+
+    /**
+     * Get the generated implementation of a mapper interface.
+     * @param mapperInterface Interface annotated with {@link AkiMapper}.
+     * @return Shared mapper instance.
+     */
+    public static <M> M getMapper(Class<M> mapperInterface) {
+
+        for (AkiMapperRegistration mapper : Registry.MAPPERS) {
+
+            if (mapperInterface.isInstance(mapper)) return mapperInterface.cast(mapper) ;
+        }
+
+        throw new IllegalArgumentException("No generated implementation of " + mapperInterface.getName()
+                                           + ", is it annotated with @AkiMapper and compiled with the annotation processor enabled ?") ;
+    }
+
+    /**
+     * Get the generated mapping method of an exact (source class, target class) pair.
+     * @return Mapping function, null when no mapper declares the pair.
+     */
+    @SuppressWarnings("unchecked")
+    public static <S, T> Function<S, T> findMapping(Class<S> sourceClass, Class<T> targetClass) {
+
+        if (Registry.MAPPINGS.isEmpty()) return null ;
+
+        return (Function<S, T>) Registry.MAPPINGS.get(new TypePair(sourceClass, targetClass)) ;
+    }
+
+    // Loaded on first use
+    private static final class Registry {
+
+        private static final List<AkiMapperRegistration> MAPPERS = new ArrayList<>() ;
+        private static final Map<TypePair, Function<?, ?>> MAPPINGS = new HashMap<>() ;
+
+        static {
+
+            Iterator<AkiMapperRegistration> mappers = ServiceLoader.load(AkiMapperRegistration.class).iterator() ;
+
+            while (true) {
+
+                AkiMapperRegistration mapper ;
+
+                try {
+
+                    if (!mappers.hasNext()) break ;
+
+                    mapper = mappers.next() ;
+                } catch (ServiceConfigurationError e) {
+
+                    // Ex : a service entry left behind by a deleted mapper, the remaining ones still load
+                    AkiLoggerFactory.getAkiLogger(AkiMappers.class).warn("Skipped generated mapper: {}", e.getMessage()) ;
+
+                    continue ;
+                }
+
+                MAPPERS.add(mapper) ;
+
+                // The first mapper declaring a pair wins
+                mapper.registerMappings(new AkiMapperRegistration.MappingSink() {
+
+                    @Override
+                    public <S, T> void add(Class<S> sourceClass, Class<T> targetClass, Function<? super S, ? extends T> mapping) {
+
+                        MAPPINGS.putIfAbsent(new TypePair(sourceClass, targetClass), mapping) ;
+                    }
+                }) ;
+            }
+
+            // Their pairs no longer go through the reflective copy plans, make that visible
+            if (!MAPPINGS.isEmpty()) {
+
+                AkiLoggerFactory.getAkiLogger(AkiMappers.class)
+                                .info("Loaded {} generated @AkiMapper mappings, AkiEntityCopyUtil.copyEntity uses them for their pairs (-Dcopy.generatedMappers=false to disable)", MAPPINGS.size()) ;
+            }
+        }
+    }
+
+    private record TypePair(Class<?> sourceClass, Class<?> targetClass) {}
+}
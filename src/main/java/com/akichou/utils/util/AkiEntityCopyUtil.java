@@ -3,31 +3,380 @@ package com.akichou.utils.util;
 import com.akichou.utils.exception.EntityCopyException;
 import com.akichou.utils.log.AkiLogger;
 import com.akichou.utils.log.AkiLoggerFactory;
-import org.springframework.beans.BeanUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class AkiEntityCopyUtil {
 
     private static final AkiLogger akiLogger =
             AkiLoggerFactory.getAkiLogger(AkiEntityCopyUtil.class) ;
 
+    // Copy plans compiled on first use of each (source, target) pair, replaced whenever a copy rule is registered
+    private static volatile CopyPlanCache copyPlans = new CopyPlanCache(CopyRules.EMPTY) ;
+
+    // Lists smaller than this are copied on the calling thread even in parallel mode
+    public static final int PARALLEL_THRESHOLD = 10_000 ;
+
+    // Nesting levels (beans, collections, maps, arrays) a deep copy may descend before failing
+    public static final int DEFAULT_MAX_DEPTH = 64 ;
+
+    // Smallest range handed to one worker
+    private static final int MIN_CHUNK_SIZE = 1_024 ;
+
     private AkiEntityCopyUtil() {}
 
     public static <T> T copyEntity(Object copiedTarget, Class<T> resultClazz) {
 
+        return copyWithPlan(getCopyPlan(copiedTarget.getClass(), resultClazz), copiedTarget) ;
+    }
+
+    /**
+     * Copy into a caller-supplied instance instead of allocating a new one.
+     * @param copiedTarget Source entity.
+     * @param result Target instance, its properties missing from the source are left untouched.
+     * @return The given target.
+     */
+    public static <T> T copyEntity(Object copiedTarget, T result) {
+
+        @SuppressWarnings("unchecked")
+        CopyPlan<Object, T> copyPlan = getCopyPlan(copiedTarget.getClass(), (Class<T>) result.getClass()) ;
+
+        return copyIntoWithPlan(copyPlan, copiedTarget, result) ;
+    }
+
+    public static <T, V> List<V> copyEntityList(List<T> copiedTargetList, Class<V> resultClazz) {
+
+        List<?> sources = randomAccess(copiedTargetList) ;
+
+        // Presized and filled in place, instead of growing a list through stream().toList()
+        Object[] results = new Object[sources.size()] ;
+        copyRange(sources, results, resultClazz, 0, results.length) ;
+
+        return asUnmodifiableList(results) ;
+    }
+
+    /**
+     * Copy a list without stopping at failed elements : failures are collected with their index, nothing is logged
+     * per element, and a batch with failures logs one summary (with the first failure's stack trace) at WARN.
+     * @param copiedTargetList Source entities.
+     * @param resultClazz Target class.
+     * @return Copies in source order (null where the copy failed) with the failed indexes and their causes.
+     */
+    public static <T, V> CopyResult<V> bulkCopyEntityList(List<T> copiedTargetList, Class<V> resultClazz) {
+
+        List<?> sources = randomAccess(copiedTargetList) ;
+        Object[] results = new Object[sources.size()] ;
+
+        int[] failedIndexes = new int[0] ;
+        Throwable[] failureCauses = new Throwable[0] ;
+        int failureCount = 0 ;
+
+        CopyPlan<Object, V> copyPlan = null ;
+
+        for (int i = 0 ; i < results.length ; i ++) {
+
+            Object source = sources.get(i) ;
+
+            try {
+
+                if (copyPlan == null || copyPlan.getSourceClass() != source.getClass()) {
+
+                    copyPlan = findCopyPlan(source.getClass(), resultClazz) ;
+                }
+
+                results[i] = copyPlan.copy(source) ;
+            } catch (Exception e) {
+
+                if (failureCount == failedIndexes.length) {
+
+                    failedIndexes = Arrays.copyOf(failedIndexes, Math.max(8, failureCount * 2)) ;
+                    failureCauses = Arrays.copyOf(failureCauses, failedIndexes.length) ;
+                }
+
+                failedIndexes[failureCount] = i ;
+                failureCauses[failureCount] = e ;
+                failureCount ++ ;
+            }
+        }
+
+        if (failureCount > 0) {
+
+            akiLogger.warn("Copied {} of {} entities to {}, {} failed, first at index {}",
+                           results.length - failureCount,
+                           results.length,
+                           resultClazz.getName(),
+                           failureCount,
+                           failedIndexes[0],
+                           failureCauses[0]) ;
+        }
+
+        return new CopyResult<>(asUnmodifiableList(results),
+                                Arrays.copyOf(failedIndexes, failureCount),
+                                Arrays.copyOf(failureCauses, failureCount)) ;
+    }
+
+    /**
+     * Copy a list on the common ForkJoinPool, keeping the encounter order.
+     * @param copiedTargetList Source entities.
+     * @param resultClazz Target class.
+     * @return Copied entities in the source order. Lists smaller than {@link #PARALLEL_THRESHOLD} are copied sequentially.
+     */
+    public static <T, V> List<V> copyEntityListParallel(List<T> copiedTargetList, Class<V> resultClazz) {
+
+        if (copiedTargetList.size() < PARALLEL_THRESHOLD) return copyEntityList(copiedTargetList, resultClazz) ;
+
+        List<?> sources = randomAccess(copiedTargetList) ;
+        Object[] results = new Object[sources.size()] ;
+
+        ForkJoinPool.commonPool().invoke(new CopyRangeAction(sources, results, resultClazz, 0, results.length,
+                                                             chunkSize(results.length, ForkJoinPool.getCommonPoolParallelism()))) ;
+
+        return asUnmodifiableList(results) ;
+    }
+
+    /**
+     * Copy a list on the given executor, keeping the encounter order.
+     * @param copiedTargetList Source entities.
+     * @param resultClazz Target class.
+     * @param executor Executor running the chunks, ex : a dedicated pool for bulk exports.
+     * @return Copied entities in the source order. Lists smaller than {@link #PARALLEL_THRESHOLD} are copied sequentially.
+     */
+    public static <T, V> List<V> copyEntityListParallel(List<T> copiedTargetList, Class<V> resultClazz, Executor executor) {
+
+        if (copiedTargetList.size() < PARALLEL_THRESHOLD) return copyEntityList(copiedTargetList, resultClazz) ;
+
+        List<?> sources = randomAccess(copiedTargetList) ;
+        Object[] results = new Object[sources.size()] ;
+
+        int chunkSize = chunkSize(results.length, Runtime.getRuntime().availableProcessors()) ;
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>(results.length / chunkSize + 1) ;
+        for (int from = 0 ; from < results.length ; from += chunkSize) {
+
+            int chunkFrom = from ;
+            int chunkTo = Math.min(from + chunkSize, results.length) ;
+
+            chunks.add(CompletableFuture.runAsync(() -> copyRange(sources, results, resultClazz, chunkFrom, chunkTo), executor)) ;
+        }
+
+        try {
+
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture<?>[]::new)).join() ;
+        } catch (CompletionException e) {
+
+            // Surface the EntityCopyException of the failed chunk as in the sequential path
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException ;
+
+            throw e ;
+        }
+
+        return asUnmodifiableList(results) ;
+    }
+
+    /**
+     * Deep copy : nested beans, collections, maps and arrays are copied instead of shared, see
+     * {@link #deepCopyEntity(Object, Class, int)}.
+     */
+    public static <T> T deepCopyEntity(Object copiedTarget, Class<T> resultClazz) {
+
+        return deepCopyEntity(copiedTarget, resultClazz, DEFAULT_MAX_DEPTH) ;
+    }
+
+    /**
+     * Deep copy : nested beans, collections, maps and arrays are copied instead of shared, properties are matched by
+     * name like {@link #copyEntity(Object, Class)}, and nested values are mapped onto the declared target types
+     * (ex : a List&lt;AddressEntity&gt; property onto a List&lt;AddressDto&gt; one). Simple values and other JDK types are shared.
+     * <p>
+     * A reference back to an object being copied (a cycle) resolves to its copy, except for a record or another
+     * constructor-created target, which fails. An object reachable through two separate branches is copied twice.
+     * @param copiedTarget Source entity.
+     * @param resultClazz Target class.
+     * @param maxDepth Maximum nesting of the source graph, deeper graphs fail with an {@link EntityCopyException}.
+     * @return Deep copy of the source.
+     */
+    public static <T> T deepCopyEntity(Object copiedTarget, Class<T> resultClazz, int maxDepth) {
+
         T result ;
 
         try {
 
-            result = resultClazz.getDeclaredConstructor().newInstance() ;
+            result = resultClazz.cast(DeepCopier.copy(copiedTarget, resultClazz, maxDepth)) ;
+        } catch (Exception e) {
+
+            akiLogger.error("Error occurred while deep copying entity from {} to {}",
+                             copiedTarget.getClass().getName(),
+                             resultClazz.getName(),
+                             e) ;
+
+            throw new EntityCopyException("Error occurred while deep copying entity", e) ;
+        }
+
+        return result ;
+    }
+
+    public static <T, V> List<V> deepCopyEntityList(List<T> copiedTargetList, Class<V> resultClazz) {
+
+        Object[] results = new Object[copiedTargetList.size()] ;
+
+        int i = 0 ;
+        for (T copiedTarget : copiedTargetList) results[i ++] = deepCopyEntity(copiedTarget, resultClazz) ;
+
+        return asUnmodifiableList(results) ;
+    }
+
+    /**
+     * Copy every element into one pooled target, handed to the consumer before the next element overwrites it.
+     * The consumer must not keep the target beyond its call.
+     * @param copiedTargetList Source entities.
+     * @param resultClazz Target class, instantiated once.
+     * @param consumer Processes each copy.
+     */
+    public static <T, V> void forEachCopied(List<T> copiedTargetList, Class<V> resultClazz, Consumer<? super V> consumer) {
+
+        if (copiedTargetList.isEmpty()) return ;
+
+        forEachCopied(copiedTargetList, getCopyPlan(copiedTargetList.get(0).getClass(), resultClazz).newTarget(), consumer) ;
+    }
+
+    /**
+     * Copy every element into one pooled target, handed to the consumer before the next element overwrites it.
+     * @param copiedTargetList Source entities.
+     * @param resultSupplier Supplies the pooled target, called once.
+     * @param consumer Processes each copy, must not keep the target beyond its call.
+     */
+    public static <T, V> void forEachCopied(List<T> copiedTargetList, Supplier<V> resultSupplier, Consumer<? super V> consumer) {
+
+        if (copiedTargetList.isEmpty()) return ;
+
+        forEachCopied(copiedTargetList, resultSupplier.get(), consumer) ;
+    }
+
+    /**
+     * Copy lazily : each element is copied when the returned iterator reaches it, so neither the sources
+     * nor the copies have to be held in memory at once.
+     * @param copiedTargets Source entities.
+     * @param resultClazz Target class.
+     * @return Iterator over the copies.
+     */
+    public static <T, V> Iterator<V> copyEntityIterator(Iterator<T> copiedTargets, Class<V> resultClazz) {
+
+        CopyFunction<V> copyFunction = new CopyFunction<>(resultClazz) ;
+
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+
+                return copiedTargets.hasNext() ;
+            }
+
+            @Override
+            public V next() {
+
+                return copyFunction.apply(copiedTargets.next()) ;
+            }
+        } ;
+    }
+
+    /**
+     * Copy lazily as an intermediate stream operation, ex : over a streamed query result.
+     * @param copiedTargets Source entities.
+     * @param resultClazz Target class.
+     * @return Stream of the copies, closing the source stream when closed.
+     */
+    public static <T, V> Stream<V> copyEntityStream(Stream<T> copiedTargets, Class<V> resultClazz) {
+
+        return copiedTargets.map(new CopyFunction<>(resultClazz)) ;
+    }
+
+    /**
+     * Copy the items of a reactive source. Demand is passed through unchanged, so the subscriber's
+     * requests bound how many sources are in flight.
+     * @param copiedTargets Source entities.
+     * @param resultClazz Target class.
+     * @return Publisher of the copies. A failed copy cancels the source and is signalled through onError.
+     */
+    public static <T, V> Flow.Publisher<V> copyEntityPublisher(Flow.Publisher<T> copiedTargets, Class<V> resultClazz) {
+
+        return subscriber -> copiedTargets.subscribe(new CopySubscriber<>(subscriber, new CopyFunction<>(resultClazz))) ;
+    }
+
+    /**
+     * Get the compiled copy plan of a (source, target) pair, to keep and reuse on hot paths.
+     * @param sourceClazz Source class.
+     * @param resultClazz Target class.
+     * @return Cached copy plan, compiled on first request.
+     */
+    @SuppressWarnings("unchecked")
+    public static <S, T> CopyPlan<S, T> planFor(Class<S> sourceClazz, Class<T> resultClazz) {
+
+        return (CopyPlan<S, T>) getCopyPlan(sourceClazz, resultClazz) ;
+    }
+
+    /**
+     * Register a converter used for every property whose source type (or a superclass of it) is sourceType and
+     * whose target type is targetType, when the types are not assignable. Resolved once per plan, when it is compiled.
+     * Already compiled plans are dropped, so register converters at startup. Generated {@link com.akichou.utils.mapper.AkiMapper}
+     * mappings can't apply converters, so copies stop using them once any converter is registered.
+     * @param sourceType Source property type, primitives and their wrappers are equivalent.
+     * @param targetType Target property type.
+     * @param converter Converts non-null source values.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <S, T> void registerConverter(Class<S> sourceType, Class<T> targetType, Function<? super S, ? extends T> converter) {
+
+        copyPlans = copyPlans.withCopyRules(copyPlans.getCopyRules().withConverter(sourceType, targetType, (Function<Object, Object>) converter)) ;
+    }
+
+    /**
+     * Register the rename / ignore / convert rules of a (source, target) pair, replacing its previous mapping.
+     * Already compiled plans are dropped, so register mappings at startup. Deep copies keep plain name matching.
+     * @param mapping Rules built with {@link CopyMapping#builder(Class, Class)}.
+     */
+    public static synchronized void registerMapping(CopyMapping<?, ?> mapping) {
+
+        copyPlans = copyPlans.withCopyRules(copyPlans.getCopyRules().withMapping(mapping)) ;
+    }
+
+    // Drop every registered converter and mapping, so tests don't leak rules into each other
+    static synchronized void resetCopyRules() {
+
+        copyPlans = copyPlans.withCopyRules(CopyRules.EMPTY) ;
+    }
+
+    // Hit / compile counters of the copy plan cache, kept across registrations
+    public static CopyPlanStats getCopyPlanStats() {
+
+        return copyPlans.stats() ;
+    }
+
+    static <T> T copyWithPlan(CopyPlan<Object, T> copyPlan, Object copiedTarget) {
+
+        T result ;
+
+        try {
 
-            BeanUtils.copyProperties(copiedTarget, result) ;
+            result = copyPlan.copy(copiedTarget) ;
         } catch (Exception e) {
 
             akiLogger.error("Error occurred while copying entity from {} to {}",
                              copiedTarget.getClass().getName(),
-                             resultClazz.getName(),
+                             copyPlan.getTargetClass().getName(),
                              e) ;
 
             throw new EntityCopyException("Error occurred while copying entity", e) ;
@@ -36,10 +385,144 @@ public class AkiEntityCopyUtil {
         return result ;
     }
 
-    public static <T, V> List<V> copyEntityList(List<T> copiedTargetList, Class<V> resultClazz) {
+    private static <T> T copyIntoWithPlan(CopyPlan<Object, T> copyPlan, Object copiedTarget, T result) {
+
+        try {
+
+            return copyPlan.copyInto(copiedTarget, result) ;
+        } catch (Exception e) {
+
+            akiLogger.error("Error occurred while copying entity from {} to {}",
+                             copiedTarget.getClass().getName(),
+                             copyPlan.getTargetClass().getName(),
+                             e) ;
+
+            throw new EntityCopyException("Error occurred while copying entity", e) ;
+        }
+    }
+
+    // Mixed source classes only overwrite their own matching properties, the pooled target keeps the rest
+    private static <V> void forEachCopied(List<?> copiedTargetList, V result, Consumer<? super V> consumer) {
+
+        @SuppressWarnings("unchecked")
+        Class<V> resultClazz = (Class<V>) result.getClass() ;
+
+        CopyPlan<Object, V> copyPlan = null ;
+
+        for (Object copiedTarget : copiedTargetList) {
+
+            if (copyPlan == null || copyPlan.getSourceClass() != copiedTarget.getClass()) {
+
+                copyPlan = getCopyPlan(copiedTarget.getClass(), resultClazz) ;
+            }
+
+            consumer.accept(copyIntoWithPlan(copyPlan, copiedTarget, result)) ;
+        }
+    }
 
-        return copiedTargetList.stream()
-                .map(o -> copyEntity(o, resultClazz))
-                .toList() ;
+    // Copy sources [from, to) into results, reusing the plan while consecutive elements share a class
+    private static void copyRange(List<?> sources, Object[] results, Class<?> resultClazz, int from, int to) {
+
+        CopyPlan<Object, ?> copyPlan = null ;
+
+        for (int i = from ; i < to ; i ++) {
+
+            Object source = sources.get(i) ;
+
+            if (copyPlan == null || copyPlan.getSourceClass() != source.getClass()) {
+
+                copyPlan = getCopyPlan(source.getClass(), resultClazz) ;
+            }
+
+            results[i] = copyWithPlan(copyPlan, source) ;
+        }
+    }
+
+    private static List<?> randomAccess(List<?> list) {
+
+        return list instanceof RandomAccess ? list : Arrays.asList(list.toArray()) ;
+    }
+
+    // A few chunks per worker, to even out uneven entities, but never tiny ones
+    private static int chunkSize(int size, int parallelism) {
+
+        return Math.max(MIN_CHUNK_SIZE, size / (Math.max(1, parallelism) * 4)) ;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> List<V> asUnmodifiableList(Object[] results) {
+
+        return Collections.unmodifiableList((List<V>) Arrays.asList(results)) ;
+    }
+
+    // Compile failures are logged and wrapped like copy failures
+    static <T> CopyPlan<Object, T> getCopyPlan(Class<?> sourceClass, Class<T> targetClass) {
+
+        try {
+
+            return findCopyPlan(sourceClass, targetClass) ;
+        } catch (EntityCopyException e) {
+
+            akiLogger.error("Error occurred while compiling the copy plan from {} to {}",
+                             sourceClass.getName(),
+                             targetClass.getName(),
+                             e) ;
+
+            throw e ;
+        }
+    }
+
+    // Not logged, for callers that collect failures. A plan that failed to compile is not cached, it is retried on next use
+    @SuppressWarnings("unchecked")
+    private static <T> CopyPlan<Object, T> findCopyPlan(Class<?> sourceClass, Class<T> targetClass) {
+
+        try {
+
+            return (CopyPlan<Object, T>) copyPlans.get(sourceClass, targetClass) ;
+        } catch (EntityCopyException e) {
+
+            throw e ;
+        } catch (RuntimeException | LinkageError e) {
+
+            throw new EntityCopyException("Error occurred while compiling the copy plan", e) ;
+        }
+    }
+
+    private static final class CopyRangeAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L ;
+
+        private final List<?> sources ;
+        private final Object[] results ;
+        private final Class<?> resultClazz ;
+        private final int from ;
+        private final int to ;
+        private final int chunkSize ;
+
+        private CopyRangeAction(List<?> sources, Object[] results, Class<?> resultClazz, int from, int to, int chunkSize) {
+
+            this.sources = sources ;
+            this.results = results ;
+            this.resultClazz = resultClazz ;
+            this.from = from ;
+            this.to = to ;
+            this.chunkSize = chunkSize ;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (to - from <= chunkSize) {
+
+                copyRange(sources, results, resultClazz, from, to) ;
+
+                return ;
+            }
+
+            int middle = (from + to) >>> 1 ;
+
+            invokeAll(new CopyRangeAction(sources, results, resultClazz, from, middle, chunkSize),
+                      new CopyRangeAction(sources, results, resultClazz, middle, to, chunkSize)) ;
+        }
     }
 }
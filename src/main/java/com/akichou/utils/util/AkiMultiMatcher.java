@@ -0,0 +1,422 @@
+package com.akichou.utils.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * AkiMultiMatcher - Searches a text for many patterns at once (Aho-Corasick), in one pass whatever the number of
+ * patterns. Built once, immutable and thread-safe.
+ * <p>
+ * Matches are reported in the order they end. Without overlapping, the longest pattern ending at a position wins and
+ * the search restarts right after it, which for a single pattern gives the same matches as
+ * {@link AkiStringUtil#countMatch(String, String)}. With overlapping, every occurrence of every pattern is reported.
+ * {@link #replaceAll(CharSequence, String)} always replaces non-overlapping matches.
+ *
+ * <pre>
+ * {@code
+ *     private static final AkiMultiMatcher BLOCKED_WORDS = AkiMultiMatcher.builder()
+ *                                                                        .addAll(keywords)
+ *                                                                        .ignoreCase(true)
+ *                                                                        .build() ;
+ *
+ *     if (BLOCKED_WORDS.containsAny(message)) message = BLOCKED_WORDS.replaceAll(message, "***") ;
+ * }
+ * </pre>
+ */
+public final class AkiMultiMatcher {
+
+    private static final int ROOT = 0 ;
+    private static final int NONE = -1 ;
+    private static final int ASCII_SIZE = 128 ;
+
+    private final String[] patterns ;
+    private final boolean ignoreCase ;
+    private final boolean overlapping ;
+
+    // Edges of state s are edgeChars / edgeTargets [edgeStart[s], edgeStart[s + 1]), sorted by char
+    private final int[] edgeStart ;
+    private final char[] edgeChars ;
+    private final int[] edgeTargets ;
+
+    // The root is visited on most chars, its ASCII edges are looked up directly
+    private final int[] rootAsciiTargets ;
+
+    private final int[] failure ;
+
+    // Pattern ending exactly at the state, and the next state down the failure chain where one ends
+    private final int[] statePattern ;
+    private final int[] outputLink ;
+
+    private AkiMultiMatcher(Builder builder) {
+
+        this.patterns = builder.patterns.toArray(new String[0]) ;
+        this.ignoreCase = builder.ignoreCase ;
+        this.overlapping = builder.overlapping ;
+
+        // Trie
+        List<TreeMap<Character, Integer>> children = new ArrayList<>() ;
+        List<Integer> patternOfState = new ArrayList<>() ;
+        children.add(new TreeMap<>()) ;
+        patternOfState.add(NONE) ;
+
+        for (int p = 0 ; p < patterns.length ; p ++) {
+
+            int state = ROOT ;
+            for (int i = 0 ; i < patterns[p].length() ; i ++) {
+
+                char c = fold(patterns[p].charAt(i)) ;
+
+                Integer next = children.get(state).get(c) ;
+                if (next == null) {
+
+                    next = children.size() ;
+                    children.add(new TreeMap<>()) ;
+                    patternOfState.add(NONE) ;
+                    children.get(state).put(c, next) ;
+                }
+
+                state = next ;
+            }
+
+            // Patterns equal after folding share a state, the first one is reported
+            if (patternOfState.get(state) == NONE) patternOfState.set(state, p) ;
+        }
+
+        // Flatten the trie
+        int stateCount = children.size() ;
+        this.edgeStart = new int[stateCount + 1] ;
+        this.edgeChars = new char[stateCount - 1] ;
+        this.edgeTargets = new int[stateCount - 1] ;
+        this.statePattern = new int[stateCount] ;
+
+        int edge = 0 ;
+        for (int s = 0 ; s < stateCount ; s ++) {
+
+            edgeStart[s] = edge ;
+            statePattern[s] = patternOfState.get(s) ;
+
+            for (var child : children.get(s).entrySet()) {
+
+                edgeChars[edge] = child.getKey() ;
+                edgeTargets[edge ++] = child.getValue() ;
+            }
+        }
+        edgeStart[stateCount] = edge ;
+
+        this.rootAsciiTargets = new int[ASCII_SIZE] ;
+        for (int e = edgeStart[ROOT] ; e < edgeStart[ROOT + 1] && edgeChars[e] < ASCII_SIZE ; e ++) {
+
+            rootAsciiTargets[edgeChars[e]] = edgeTargets[e] ;
+        }
+
+        // Failure and output links, breadth first so a state's failure is always resolved before its children
+        this.failure = new int[stateCount] ;
+        this.outputLink = new int[stateCount] ;
+        outputLink[ROOT] = NONE ;
+
+        int[] queue = new int[stateCount] ;
+        int head = 0 ;
+        int tail = 0 ;
+        queue[tail ++] = ROOT ;
+
+        while (head < tail) {
+
+            int state = queue[head ++] ;
+
+            for (int e = edgeStart[state] ; e < edgeStart[state + 1] ; e ++) {
+
+                int child = edgeTargets[e] ;
+
+                failure[child] = state == ROOT ? ROOT : next(failure[state], edgeChars[e]) ;
+
+                int fallback = failure[child] ;
+                outputLink[child] = statePattern[fallback] != NONE ? fallback : outputLink[fallback] ;
+
+                queue[tail ++] = child ;
+            }
+        }
+    }
+
+    public static Builder builder() {
+
+        return new Builder() ;
+    }
+
+    /**
+     * Case-sensitive, non-overlapping matcher
+     * @param patterns Patterns to search for
+     * @return Compiled matcher
+     */
+    public static AkiMultiMatcher of(String... patterns) {
+
+        return builder().addAll(Arrays.asList(patterns)).build() ;
+    }
+
+    /**
+     * Count the matches in the text
+     * @param text Text to search
+     * @return Number of matches, overlapping ones included in overlapping mode
+     */
+    public int count(CharSequence text) {
+
+        int[] count = new int[1] ;
+
+        scan(text, overlapping, (pattern, start, end) -> {
+
+            count[0] ++ ;
+
+            return true ;
+        }) ;
+
+        return count[0] ;
+    }
+
+    /**
+     * Check if any pattern occurs in the text, stopping at the first match
+     * @param text Text to search
+     * @return Return true if at least one pattern occurs in the text, false otherwise
+     */
+    public boolean containsAny(CharSequence text) {
+
+        boolean[] found = new boolean[1] ;
+
+        scan(text, false, (pattern, start, end) -> {
+
+            found[0] = true ;
+
+            return false ;
+        }) ;
+
+        return found[0] ;
+    }
+
+    /**
+     * Find all matches in the text
+     * @param text Text to search
+     * @return Matches in the order they end
+     */
+    public List<Match> findAll(CharSequence text) {
+
+        List<Match> matches = new ArrayList<>() ;
+
+        scan(text, overlapping, (pattern, start, end) -> matches.add(new Match(patterns[pattern], start, end))) ;
+
+        return Collections.unmodifiableList(matches) ;
+    }
+
+    /**
+     * Replace every non-overlapping match with the same replacement
+     * @param text Text to search
+     * @param replacement Replacement of each match
+     * @return Text with the matches replaced
+     */
+    public String replaceAll(CharSequence text, String replacement) {
+
+        if (replacement == null) throw new IllegalArgumentException("Replacement cannot be null") ;
+
+        return replaceAll(text, pattern -> replacement) ;
+    }
+
+    /**
+     * Replace every non-overlapping match with the replacement of its pattern
+     * @param text Text to search
+     * @param replacer Pattern (as added to the builder) to its replacement
+     * @return Text with the matches replaced
+     */
+    public String replaceAll(CharSequence text, Function<String, ? extends CharSequence> replacer) {
+
+        if (replacer == null) throw new IllegalArgumentException("Replacer cannot be null") ;
+
+        StringBuilder stringBuilder = new StringBuilder(text == null ? 0 : text.length()) ;
+        int[] copiedIndex = new int[1] ;
+
+        scan(text, false, (pattern, start, end) -> {
+
+            stringBuilder.append(text, copiedIndex[0], start).append(replacer.apply(patterns[pattern])) ;
+            copiedIndex[0] = end ;
+
+            return true ;
+        }) ;
+
+        // Every match ends past index 0
+        if (copiedIndex[0] == 0) return text.toString() ;
+
+        return stringBuilder.append(text, copiedIndex[0], text.length()).toString() ;
+    }
+
+    public boolean isIgnoreCase() {
+
+        return ignoreCase ;
+    }
+
+    public boolean isOverlapping() {
+
+        return overlapping ;
+    }
+
+    private void scan(CharSequence text, boolean reportOverlapping, MatchSink sink) {
+
+        if (text == null) throw new IllegalArgumentException("Text cannot be null") ;
+
+        int state = ROOT ;
+        for (int i = 0 ; i < text.length() ; i ++) {
+
+            state = next(state, fold(text.charAt(i))) ;
+
+            int output = statePattern[state] != NONE ? state : outputLink[state] ;
+            if (output == NONE) continue ;
+
+            // The state itself is the longest pattern ending here, the output links are shorter ones
+            do {
+
+                int pattern = statePattern[output] ;
+                if (!sink.accept(pattern, i + 1 - patterns[pattern].length(), i + 1)) return ;
+
+                output = outputLink[output] ;
+            }
+            while (reportOverlapping && output != NONE) ;
+
+            if (!reportOverlapping) state = ROOT ;
+        }
+    }
+
+    private int next(int state, char c) {
+
+        while (true) {
+
+            int target = transition(state, c) ;
+            if (target != NONE) return target ;
+
+            if (state == ROOT) return ROOT ;
+
+            state = failure[state] ;
+        }
+    }
+
+    // Target of the edge labelled c, NONE when missing (ROOT for the root, which loops on unknown chars)
+    private int transition(int state, char c) {
+
+        if (state == ROOT && c < ASCII_SIZE) {
+
+            int target = rootAsciiTargets[c] ;
+
+            return target == ROOT ? NONE : target ;
+        }
+
+        int edge = Arrays.binarySearch(edgeChars, edgeStart[state], edgeStart[state + 1], c) ;
+
+        return edge < 0 ? NONE : edgeTargets[edge] ;
+    }
+
+    // Same per-char comparison as String.equalsIgnoreCase
+    private char fold(char c) {
+
+        return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c ;
+    }
+
+    @FunctionalInterface
+    private interface MatchSink {
+
+        // Return false to stop the search
+        boolean accept(int pattern, int start, int end) ;
+    }
+
+    /**
+     * One occurrence of a pattern : [start, end) of the searched text.
+     */
+    public static final class Match {
+
+        private final String pattern ;
+        private final int start ;
+        private final int end ;
+
+        private Match(String pattern, int start, int end) {
+
+            this.pattern = pattern ;
+            this.start = start ;
+            this.end = end ;
+        }
+
+        // Pattern as added to the builder, whatever the case of the matched text
+        public String getPattern() {
+
+            return pattern ;
+        }
+
+        public int getStart() {
+
+            return start ;
+        }
+
+        public int getEnd() {
+
+            return end ;
+        }
+
+        @Override
+        public String toString() {
+
+            return pattern + "[" + start + ", " + end + ")" ;
+        }
+    }
+
+    public static final class Builder {
+
+        private final Set<String> patterns = new LinkedHashSet<>() ;
+        private boolean ignoreCase ;
+        private boolean overlapping ;
+
+        private Builder() {}
+
+        public Builder add(String pattern) {
+
+            if (pattern == null || pattern.isEmpty()) {
+
+                throw new IllegalArgumentException("Pattern cannot be null or empty") ;
+            }
+
+            patterns.add(pattern) ;
+
+            return this ;
+        }
+
+        public Builder addAll(Collection<String> patterns) {
+
+            if (patterns == null) throw new IllegalArgumentException("Patterns cannot be null") ;
+
+            patterns.forEach(this::add) ;
+
+            return this ;
+        }
+
+        // Compare chars the way String.equalsIgnoreCase does
+        public Builder ignoreCase(boolean ignoreCase) {
+
+            this.ignoreCase = ignoreCase ;
+
+            return this ;
+        }
+
+        // Report every occurrence of every pattern, including ones inside or across other matches
+        public Builder overlapping(boolean overlapping) {
+
+            this.overlapping = overlapping ;
+
+            return this ;
+        }
+
+        public AkiMultiMatcher build() {
+
+            if (patterns.isEmpty()) throw new IllegalArgumentException("At least one pattern is required") ;
+
+            return new AkiMultiMatcher(this) ;
+        }
+    }
+}
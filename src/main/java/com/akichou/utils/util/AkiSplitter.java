@@ -0,0 +1,319 @@
+package com.akichou.utils.util;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * AkiSplitter - Reusable splitter with the semantics of {@link AkiStringUtil#splitBy(String, String)} : the input is
+ * trimmed and consecutive separators count as one, so no piece is ever empty.
+ * <p>
+ * Pieces are reported as index ranges of the input (or as {@link CharSequence} views over it), nothing is copied,
+ * and splitting stops as soon as the limit is reached. Multi-char separators are searched with Horspool's
+ * algorithm, whose skip table is built once per splitter.
+ *
+ * <pre>
+ * {@code
+ *     private static final AkiSplitter FIELDS = AkiSplitter.on("||") ;
+ *
+ *     FIELDS.split(line, (input, start, end) -> handle(input, start, end)) ;
+ * }
+ * </pre>
+ */
+public final class AkiSplitter {
+
+    private static final int TABLE_SIZE = 256 ;
+
+    private final String separator ;
+    private final int limit ;
+
+    // Horspool shifts indexed by the low byte of a char, null for single-char separators
+    private final int[] skipTable ;
+
+    private AkiSplitter(String separator, int limit, int[] skipTable) {
+
+        this.separator = separator ;
+        this.limit = limit ;
+        this.skipTable = skipTable ;
+    }
+
+    /**
+     * Create a splitter
+     * @param separator Split symbol
+     * @return Splitter without limit on the number of pieces
+     */
+    public static AkiSplitter on(String separator) {
+
+        if (separator == null || separator.isEmpty()) {
+
+            throw new IllegalArgumentException("Split symbol cannot be null or empty") ;
+        }
+
+        return new AkiSplitter(separator, Integer.MAX_VALUE, separator.length() > 1 ? skipTable(separator) : null) ;
+    }
+
+    /**
+     * Same splitter, stopping after the given number of pieces
+     * @param limit Maximum number of pieces
+     * @return Limited splitter sharing this splitter's skip table
+     */
+    public AkiSplitter limit(int limit) {
+
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be a positive number") ;
+
+        return new AkiSplitter(separator, limit, skipTable) ;
+    }
+
+    /**
+     * Report every piece to the consumer, without allocating
+     * @param input Input to split
+     * @param consumer Receives each piece as [start, end) of the input
+     * @return Number of pieces reported
+     */
+    public int split(CharSequence input, RangeConsumer consumer) {
+
+        if (input == null) throw new IllegalArgumentException("Target string cannot be null") ;
+
+        int to = trimmedEnd(input) ;
+        int pieceStart = trimmedStart(input, to) ;
+        int count = 0 ;
+
+        while (count < limit) {
+
+            int match = indexOf(input, pieceStart, to) ;
+
+            if (match == -1) {
+
+                if (pieceStart < to) {
+
+                    consumer.accept(input, pieceStart, to) ;
+                    count ++ ;
+                }
+
+                break ;
+            }
+
+            if (match > pieceStart) {
+
+                consumer.accept(input, pieceStart, match) ;
+                count ++ ;
+            }
+
+            pieceStart = match + separator.length() ;
+        }
+
+        return count ;
+    }
+
+    /**
+     * Iterate over the pieces as index ranges, the cursor is the only allocation
+     * @param input Input to split
+     * @return Cursor positioned before the first piece
+     */
+    public Cursor cursor(CharSequence input) {
+
+        if (input == null) throw new IllegalArgumentException("Target string cannot be null") ;
+
+        return new Cursor(input) ;
+    }
+
+    /**
+     * Iterate over the pieces as read-only views of the input, no chars are copied
+     * @param input Input to split
+     * @return Lazily split pieces
+     */
+    public Iterable<CharSequence> split(CharSequence input) {
+
+        if (input == null) throw new IllegalArgumentException("Target string cannot be null") ;
+
+        return () -> new Iterator<>() {
+
+            private final Cursor cursor = new Cursor(input) ;
+            private boolean advanced ;
+            private boolean hasNext ;
+
+            @Override
+            public boolean hasNext() {
+
+                if (!advanced) {
+
+                    hasNext = cursor.next() ;
+                    advanced = true ;
+                }
+
+                return hasNext ;
+            }
+
+            @Override
+            public CharSequence next() {
+
+                if (!hasNext()) throw new NoSuchElementException() ;
+
+                advanced = false ;
+
+                return cursor.current() ;
+            }
+        } ;
+    }
+
+    /**
+     * Split into strings
+     * @param input Input to split
+     * @return Array of the pieces
+     */
+    public String[] splitToArray(CharSequence input) {
+
+        List<String> pieces = new ArrayList<>() ;
+
+        split(input, (source, start, end) -> pieces.add(source.subSequence(start, end).toString())) ;
+
+        return pieces.toArray(new String[0]) ;
+    }
+
+    // First match of the separator in [from, to), or -1
+    private int indexOf(CharSequence input, int from, int to) {
+
+        int separatorLength = separator.length() ;
+
+        if (skipTable == null) {
+
+            char separatorChar = separator.charAt(0) ;
+
+            for (int i = from ; i < to ; i ++) {
+
+                if (input.charAt(i) == separatorChar) return i ;
+            }
+
+            return -1 ;
+        }
+
+        int last = separatorLength - 1 ;
+        char lastChar = separator.charAt(last) ;
+
+        int i = from ;
+        while (i <= to - separatorLength) {
+
+            char windowLast = input.charAt(i + last) ;
+
+            if (windowLast == lastChar) {
+
+                int j = last - 1 ;
+                while (j >= 0 && input.charAt(i + j) == separator.charAt(j)) j -- ;
+
+                if (j < 0) return i ;
+            }
+
+            i += skipTable[windowLast & (TABLE_SIZE - 1)] ;
+        }
+
+        return -1 ;
+    }
+
+    // Chars sharing a low byte share a slot, keeping the smallest (always safe) shift
+    private static int[] skipTable(String separator) {
+
+        int separatorLength = separator.length() ;
+
+        int[] skipTable = new int[TABLE_SIZE] ;
+        Arrays.fill(skipTable, separatorLength) ;
+
+        for (int i = 0 ; i < separatorLength - 1 ; i ++) {
+
+            skipTable[separator.charAt(i) & (TABLE_SIZE - 1)] = separatorLength - 1 - i ;
+        }
+
+        return skipTable ;
+    }
+
+    // Same whitespace rule as String.trim()
+    private static int trimmedEnd(CharSequence input) {
+
+        int end = input.length() ;
+        while (end > 0 && input.charAt(end - 1) <= ' ') end -- ;
+
+        return end ;
+    }
+
+    private static int trimmedStart(CharSequence input, int end) {
+
+        int start = 0 ;
+        while (start < end && input.charAt(start) <= ' ') start ++ ;
+
+        return start ;
+    }
+
+    @FunctionalInterface
+    public interface RangeConsumer {
+
+        void accept(CharSequence input, int start, int end) ;
+    }
+
+    /**
+     * Pull-style iteration over the pieces : call {@link #next()}, then read {@link #start()} and {@link #end()}.
+     */
+    public final class Cursor {
+
+        private final CharSequence input ;
+        private final int to ;
+
+        private int position ;
+        private int start = -1 ;
+        private int end = -1 ;
+        private int count ;
+
+        private Cursor(CharSequence input) {
+
+            this.input = input ;
+            this.to = trimmedEnd(input) ;
+            this.position = trimmedStart(input, to) ;
+        }
+
+        /**
+         * Move to the next piece
+         * @return Return true if there is one, false once the input or the limit is exhausted
+         */
+        public boolean next() {
+
+            while (count < limit && position < to) {
+
+                int match = indexOf(input, position, to) ;
+                int pieceEnd = match == -1 ? to : match ;
+
+                int pieceStart = position ;
+                position = match == -1 ? to : match + separator.length() ;
+
+                if (pieceEnd > pieceStart) {
+
+                    start = pieceStart ;
+                    end = pieceEnd ;
+                    count ++ ;
+
+                    return true ;
+                }
+            }
+
+            return false ;
+        }
+
+        // Start index (inclusive) of the current piece in the input
+        public int start() {
+
+            return start ;
+        }
+
+        // End index (exclusive) of the current piece in the input
+        public int end() {
+
+            return end ;
+        }
+
+        // Read-only view of the current piece
+        public CharSequence current() {
+
+            return CharBuffer.wrap(input, start, end) ;
+        }
+    }
+}
@@ -2,13 +2,20 @@ package com.akichou.utils.util;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
 /**
  * AkiStringUtil - Common string handling methods.
  */
 public final class AkiStringUtil {
 
+    private static final int PATTERN_CACHE_SIZE = 256 ;
+
+    // Regexes of replaceFirstString, cleared as a whole when full
+    private static final ConcurrentMap<String, Pattern> PATTERNS = new ConcurrentHashMap<>() ;
+
     private AkiStringUtil() {}
 
     /**
@@ -40,7 +47,15 @@ public final class AkiStringUtil {
      */
     public static boolean isBlank(String targetStr) {
 
-        return targetStr == null || targetStr.trim().isEmpty() ;
+        if (targetStr == null) return true ;
+
+        // Same rule as trim() without copying the string
+        for (int i = 0 ; i < targetStr.length() ; i ++) {
+
+            if (targetStr.charAt(i) > ' ') return false ;
+        }
+
+        return true ;
     }
 
     /**
@@ -66,10 +81,12 @@ public final class AkiStringUtil {
 
         for (int i = 0 ; i < targetStr.length() ; i ++) {
 
-            if (!Character.isUpperCase(targetStr.charAt(i))) {
+            char c = targetStr.charAt(i) ;
 
-                return false ;
-            }
+            // ASCII fast path, only chars beyond it need the Unicode tables
+            if (c >= 'A' && c <= 'Z') continue ;
+
+            if (c < 128 || !Character.isUpperCase(c)) return false ;
         }
 
         return true ;
@@ -122,10 +139,12 @@ public final class AkiStringUtil {
 
         for (int i = 0 ; i < targetStr.length() ; i ++) {
 
-            if (!Character.isLowerCase(targetStr.charAt(i))) {
+            char c = targetStr.charAt(i) ;
 
-                return false ;
-            }
+            // ASCII fast path, only chars beyond it need the Unicode tables
+            if (c >= 'a' && c <= 'z') continue ;
+
+            if (c < 128 || !Character.isLowerCase(c)) return false ;
         }
 
         return true ;
@@ -160,7 +179,17 @@ public final class AkiStringUtil {
 
         if (isBlank(targetStr)) return false ;
 
-        return targetStr.matches("[a-zA-Z\\s]+") ;
+        for (int i = 0 ; i < targetStr.length() ; i ++) {
+
+            char c = targetStr.charAt(i) ;
+
+            if (!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && !isRegexSpace(c)) {
+
+                return false ;
+            }
+        }
+
+        return true ;
     }
 
     /**
@@ -172,7 +201,17 @@ public final class AkiStringUtil {
 
         if (isBlank(targetStr)) return false ;
 
-        return targetStr.matches("[0-9\\s]+") ;
+        for (int i = 0 ; i < targetStr.length() ; i ++) {
+
+            char c = targetStr.charAt(i) ;
+
+            if (!(c >= '0' && c <= '9') && !isRegexSpace(c)) {
+
+                return false ;
+            }
+        }
+
+        return true ;
     }
 
     /**
@@ -186,10 +225,12 @@ public final class AkiStringUtil {
 
         for (int i = 0 ; i < targetStr.length() ; i ++) {
 
-            if (!Character.isDigit(targetStr.charAt(i))) {
+            char c = targetStr.charAt(i) ;
 
-                return false ;
-            }
+            // ASCII fast path, only chars beyond it need the Unicode tables
+            if (c >= '0' && c <= '9') continue ;
+
+            if (c < 128 || !Character.isDigit(c)) return false ;
         }
 
         return true ;
@@ -324,6 +365,43 @@ public final class AkiStringUtil {
         return count ;
     }
 
+    /**
+     * Count the number of substring in target string (ignore case).
+     * @param targetStr Target string instance.
+     * @param subStr Substring which will be counted.
+     * @return  Return the number of substring in targetStr (ignore case). If targetStr or subStr is blank, return 0.
+     */
+    public static int countMatchIgnoreCase(String targetStr, String subStr) {
+
+        if (isBlank(targetStr) || isBlank(subStr)) return 0 ;
+
+        int index = 0 ;
+        int count = 0 ;
+
+        while ((index = indexOfIgnoreCase(targetStr, subStr, index)) != -1) {
+
+            count ++ ;
+            index += subStr.length() ;      // Move out of the position in targetStr
+        }
+
+        return count ;
+    }
+
+    /**
+     * Count the matches of many substrings in one pass over target string.
+     * @param targetStr Target string instance.
+     * @param matcher Substrings compiled once, see {@link AkiMultiMatcher}.
+     * @return  Return the number of matches in targetStr. If targetStr is blank, return 0.
+     */
+    public static int countMatch(String targetStr, AkiMultiMatcher matcher) {
+
+        if (matcher == null) throw new IllegalArgumentException("Matcher cannot be null") ;
+
+        if (isBlank(targetStr)) return 0 ;
+
+        return matcher.count(targetStr) ;
+    }
+
     /**
      * Trim function
      * @param targetStr Target string instance.
@@ -381,7 +459,21 @@ public final class AkiStringUtil {
 
         if (isBlank(targetStr)) return targetStr ;
 
-        return targetStr.replaceAll("\\s+", "") ;
+        StringBuilder stringBuilder = new StringBuilder(targetStr.length()) ;
+        for (int i = 0 ; i < targetStr.length() ; i ++) {
+
+            char c = targetStr.charAt(i) ;
+
+            if (!isRegexSpace(c)) stringBuilder.append(c) ;
+        }
+
+        return stringBuilder.toString() ;
+    }
+
+    // Same set as the regex \s : [ \t\n\x0B\f\r]
+    private static boolean isRegexSpace(char c) {
+
+        return c == ' ' || (c >= '\t' && c <= '\r') ;
     }
 
     /**
@@ -513,20 +605,20 @@ public final class AkiStringUtil {
 
         if (targetStr == null) throw new IllegalArgumentException("Target string cannot be null") ;
 
-        // Dynamically manage the size via list-to-array
-        List<Integer> indexList = new ArrayList<>() ;
-        for (int i = 0 ; i < targetStr.length() ; i ++) {
+        // String.indexOf is an intrinsic scanning many chars per step, collect into a growing int[] without boxing
+        int[] indexes = new int[8] ;
+        int count = 0 ;
 
-            if (targetStr.charAt(i) == chara) indexList.add(i) ;
-        }
+        int index = targetStr.indexOf(chara) ;
+        while (index != -1) {
 
-        int[] indexes = new int[indexList.size()] ;
-        for (int i = 0 ; i < indexList.size() ; i ++) {
+            if (count == indexes.length) indexes = Arrays.copyOf(indexes, count << 1) ;
+            indexes[count ++] = index ;
 
-            indexes[i] = indexList.get(i) ;
+            index = targetStr.indexOf(chara, index + 1) ;
         }
 
-        return indexes ;
+        return Arrays.copyOf(indexes, count) ;
     }
 
     /**
@@ -542,6 +634,21 @@ public final class AkiStringUtil {
         return targetStr.contains(substring) ;
     }
 
+    /**
+     * Does targetStr contain any of the substrings
+     * @param targetStr Target string instance
+     * @param matcher Substrings compiled once, see {@link AkiMultiMatcher}
+     * @return Return true if targetStr contains at least one of the substrings, false otherwise.
+     */
+    public static boolean containsAny(String targetStr, AkiMultiMatcher matcher) {
+
+        if (matcher == null) throw new IllegalArgumentException("Matcher cannot be null") ;
+
+        if (targetStr == null) return false ;
+
+        return matcher.containsAny(targetStr) ;
+    }
+
     /**
      * Does targetStr contain substring (ignore case)
      * @param targetStr Target string instance
@@ -552,7 +659,60 @@ public final class AkiStringUtil {
 
         if (targetStr == null) return substring == null ;
 
-        return targetStr.toLowerCase().contains(substring.toLowerCase()) ;
+        return indexOfIgnoreCase(targetStr, substring, 0) != -1 ;
+    }
+
+    /**
+     * Fetch the index of substring (ignore case), comparing char by char without lowercased copies
+     * @param targetStr Target string instance
+     * @param substring Sub-string instance
+     * @return Return the index of the first occurrence of substring (ignore case), -1 if there is none.
+     */
+    public static int indexOfIgnoreCase(String targetStr, String substring) {
+
+        if (targetStr == null) throw new IllegalArgumentException("Target string cannot be null") ;
+
+        return indexOfIgnoreCase(targetStr, substring, 0) ;
+    }
+
+    private static int indexOfIgnoreCase(String targetStr, String substring, int fromIndex) {
+
+        if (substring == null) throw new IllegalArgumentException("Substring cannot be null") ;
+
+        int substringLen = substring.length() ;
+        if (substringLen == 0) return fromIndex ;
+
+        char firstChar = substring.charAt(0) ;
+        for (int i = fromIndex ; i <= targetStr.length() - substringLen ; i ++) {
+
+            // Cheap first-char check, then the same per-char comparison as String.equalsIgnoreCase
+            if (equalsIgnoreCase(targetStr.charAt(i), firstChar)
+                    && targetStr.regionMatches(true, i + 1, substring, 1, substringLen - 1)) {
+
+                return i ;
+            }
+        }
+
+        return -1 ;
+    }
+
+    // Per-char String.equalsIgnoreCase rule
+    private static boolean equalsIgnoreCase(char c1, char c2) {
+
+        if (c1 == c2) return true ;
+
+        // ASCII fast path, only letters differ by the 0x20 case bit
+        if ((c1 | c2) < 128) {
+
+            char lower = (char) (c1 | 0x20) ;
+
+            return lower == (c2 | 0x20) && lower >= 'a' && lower <= 'z' ;
+        }
+
+        char upper1 = Character.toUpperCase(c1) ;
+        char upper2 = Character.toUpperCase(c2) ;
+
+        return upper1 == upper2 || Character.toLowerCase(upper1) == Character.toLowerCase(upper2) ;
     }
 
     /**
@@ -612,38 +772,7 @@ public final class AkiStringUtil {
      */
     public static String[] splitBy(String targetStr, String splitSymbol) {
 
-        if (targetStr == null) throw new IllegalArgumentException("Target string cannot be null") ;
-        targetStr = targetStr.trim() ;
-
-
-        if (splitSymbol == null || splitSymbol.isEmpty()) {
-
-            throw new IllegalArgumentException("Split symbol cannot be null or empty") ;
-        }
-
-        ArrayList<String> stringList = new ArrayList<>() ;
-
-        int substringStartIndex = 0 ;
-        int splitSymbolLen = splitSymbol.length() ;
-        for (int i = 0 ; i <= targetStr.length() - splitSymbolLen ; i ++) {
-
-            if (targetStr.startsWith(splitSymbol, i)) {
-
-                if (substringStartIndex != i) stringList.add(targetStr.substring(substringStartIndex, i)) ;
-
-                substringStartIndex = i + splitSymbolLen ;
-
-                i += splitSymbolLen - 1 ;
-            }
-        }
-
-        // Add the last part of the string
-        if (substringStartIndex < targetStr.length()) {
-
-            stringList.add(targetStr.substring(substringStartIndex)) ;
-        }
-
-        return stringList.toArray(new String[0]) ;
+        return splitBy(targetStr, splitSymbol, Integer.MAX_VALUE) ;
     }
 
     /**
@@ -662,14 +791,48 @@ public final class AkiStringUtil {
      *     [aa, bb, -cc, dd]
      * }
      * </pre>
+     * For repeated splitting by the same symbol without building strings, see {@link AkiSplitter}.
      */
     public static String[] splitBy(String targetStr, String splitSymbol, int limit) {
 
+        if (targetStr == null) throw new IllegalArgumentException("Target string cannot be null") ;
+
+        if (splitSymbol == null || splitSymbol.isEmpty()) {
+
+            throw new IllegalArgumentException("Split symbol cannot be null or empty") ;
+        }
+
         if (limit <= 0) throw new IllegalArgumentException("Limit must be a positive number") ;
 
-        String[] stringArray = splitBy(targetStr, splitSymbol) ;
+        // Trim by indexes instead of copying the string
+        int endIndex = targetStr.length() ;
+        while (endIndex > 0 && targetStr.charAt(endIndex - 1) <= ' ') endIndex -- ;
+
+        int substringStartIndex = 0 ;
+        while (substringStartIndex < endIndex && targetStr.charAt(substringStartIndex) <= ' ') substringStartIndex ++ ;
 
-        return Arrays.stream(stringArray).limit(limit).toArray(String[]::new) ;
+        ArrayList<String> stringList = new ArrayList<>() ;
+
+        int splitSymbolLen = splitSymbol.length() ;
+        while (stringList.size() < limit) {
+
+            // String.indexOf is an intrinsic, far cheaper than startsWith at every index
+            int splitSymbolIndex = targetStr.indexOf(splitSymbol, substringStartIndex) ;
+
+            if (splitSymbolIndex == -1 || splitSymbolIndex + splitSymbolLen > endIndex) {
+
+                // Add the last part of the string
+                if (substringStartIndex < endIndex) stringList.add(targetStr.substring(substringStartIndex, endIndex)) ;
+
+                break ;
+            }
+
+            if (substringStartIndex != splitSymbolIndex) stringList.add(targetStr.substring(substringStartIndex, splitSymbolIndex)) ;
+
+            substringStartIndex = splitSymbolIndex + splitSymbolLen ;
+        }
+
+        return stringList.toArray(new String[0]) ;
     }
 
     /**
@@ -711,21 +874,61 @@ public final class AkiStringUtil {
 
         if (targetStr == null) throw new IllegalArgumentException("Target string cannot be null") ;
 
-        return targetStr.replaceFirst(String.valueOf(oldChar), String.valueOf(newChar)) ;
+        int oldCharIndex = targetStr.indexOf(oldChar) ;
+        if (oldCharIndex == -1) return targetStr ;
+
+        // Not toCharArray : that inflates a Latin-1 string to UTF-16 and compresses it back
+        return new StringBuilder(targetStr.length())
+                .append(targetStr, 0, oldCharIndex)
+                .append(newChar)
+                .append(targetStr, oldCharIndex + 1, targetStr.length())
+                .toString() ;
     }
 
     /**
-     * Replace the first occurrence of the specified string with a new string
+     * Replace the first match of the regex with a replacement, like {@link String#replaceFirst(String, String)}
+     * ("." matches any char, "$1" refers to a group). The compiled regex is cached.
+     * @param targetStr Target string instance
+     * @param oldStr Regex to be replaced
+     * @param newStr Replacement, which may refer to the groups of the regex
+     * @return String with the first match of the regex replaced
+     * @see #replaceFirstLiteral(String, String, String)
+     */
+    public static String replaceFirstString(String targetStr, String oldStr, String newStr) {
+
+        if (targetStr == null) throw new IllegalArgumentException("Target string cannot be null") ;
+
+        Pattern pattern = PATTERNS.get(oldStr) ;
+        if (pattern == null) {
+
+            pattern = Pattern.compile(oldStr) ;
+
+            if (PATTERNS.size() >= PATTERN_CACHE_SIZE) PATTERNS.clear() ;
+            PATTERNS.put(oldStr, pattern) ;
+        }
+
+        return pattern.matcher(targetStr).replaceFirst(newStr) ;
+    }
+
+    /**
+     * Replace the first occurrence of the specified string with a new string, both taken literally
      * @param targetStr Target string instance
      * @param oldStr Old string to be replaced
      * @param newStr New string to do replacing
      * @return String with the first occurrence of the old string replaced by the new string
      */
-    public static String replaceFirstString(String targetStr, String oldStr, String newStr) {
+    public static String replaceFirstLiteral(String targetStr, String oldStr, String newStr) {
 
         if (targetStr == null) throw new IllegalArgumentException("Target string cannot be null") ;
 
-        return targetStr.replaceFirst(oldStr, newStr) ;
+        int oldStrIndex = targetStr.indexOf(oldStr) ;
+        if (oldStrIndex == -1) return targetStr ;
+
+        return new StringBuilder(targetStr.length() - oldStr.length() + newStr.length())
+                .append(targetStr, 0, oldStrIndex)
+                .append(newStr)
+                .append(targetStr, oldStrIndex + oldStr.length(), targetStr.length())
+                .toString() ;
     }
 
     /**
@@ -754,11 +957,22 @@ public final class AkiStringUtil {
 
         if (targetStr == null) throw new IllegalArgumentException("Target string cannot be null") ;
 
-        // Make all case be lower to index
-        int charaIndex = targetStr.toLowerCase().indexOf(Character.toLowerCase(chara)) ;
+        int charaIndex = -1 ;
+        for (int i = 0 ; i < targetStr.length() ; i ++) {
+
+            if (equalsIgnoreCase(targetStr.charAt(i), chara)) {
+
+                charaIndex = i ;
+                break ;
+            }
+        }
+
         if (charaIndex == -1) return targetStr ;
 
-        return targetStr.substring(0, charaIndex) + targetStr.substring(charaIndex + 1) ;
+        return new StringBuilder(targetStr.length() - 1)
+                .append(targetStr, 0, charaIndex)
+                .append(targetStr, charaIndex + 1, targetStr.length())
+                .toString() ;
     }
 
     /**
@@ -774,7 +988,17 @@ public final class AkiStringUtil {
         int charaIndex = targetStr.indexOf(chara) ;
         if (charaIndex == -1) return targetStr ;
 
-        return targetStr.replaceAll(String.valueOf(chara), "") ;
+        StringBuilder stringBuilder = new StringBuilder(targetStr.length() - 1) ;
+        stringBuilder.append(targetStr, 0, charaIndex) ;
+
+        for (int i = charaIndex + 1 ; i < targetStr.length() ; i ++) {
+
+            char c = targetStr.charAt(i) ;
+
+            if (c != chara) stringBuilder.append(c) ;
+        }
+
+        return stringBuilder.toString() ;
     }
 
     /**
@@ -787,20 +1011,32 @@ public final class AkiStringUtil {
 
         if (targetStr == null) throw new IllegalArgumentException("Target string cannot be null") ;
 
-        StringBuilder stringBuilder = new StringBuilder() ;
-
         char lowerChara = Character.toLowerCase(chara) ;
         char upperChara = Character.toUpperCase(chara) ;
-        for (char c : targetStr.toCharArray()) {
 
-            // Excluding the char (!= input chara) in targetStr to achieve the goal implementation
-            if (c != lowerChara && c != upperChara) {
+        // Next position of each case, each one re-searched only once passed
+        int lowerIndex = targetStr.indexOf(lowerChara) ;
+        int upperIndex = upperChara == lowerChara ? -1 : targetStr.indexOf(upperChara) ;
+        if (lowerIndex == -1 && upperIndex == -1) return targetStr ;
 
-                stringBuilder.append(c) ;
-            }
+        StringBuilder stringBuilder = new StringBuilder(targetStr.length()) ;
+
+        int runStartIndex = 0 ;
+        while (lowerIndex != -1 || upperIndex != -1) {
+
+            int removeIndex = lowerIndex == -1 ? upperIndex :
+                              upperIndex == -1 ? lowerIndex :
+                              Math.min(lowerIndex, upperIndex) ;
+
+            // Copy the run between removed chars in bulk
+            stringBuilder.append(targetStr, runStartIndex, removeIndex) ;
+            runStartIndex = removeIndex + 1 ;
+
+            if (lowerIndex == removeIndex) lowerIndex = targetStr.indexOf(lowerChara, runStartIndex) ;
+            if (upperIndex == removeIndex) upperIndex = targetStr.indexOf(upperChara, runStartIndex) ;
         }
 
-        return stringBuilder.toString();
+        return stringBuilder.append(targetStr, runStartIndex, targetStr.length()).toString() ;
     }
 }
 
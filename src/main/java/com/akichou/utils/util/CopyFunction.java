@@ -0,0 +1,35 @@
+package com.akichou.utils.util;
+
+import java.util.function.Function;
+
+/**
+ * Element mapper of the streaming copy API, keeping the last resolved plan so a homogeneous
+ * source only hits the plan cache once.
+ * @param <V> Target type.
+ */
+final class CopyFunction<V> implements Function<Object, V> {
+
+    private final Class<V> resultClazz ;
+
+    // Plans are immutable, so a racy update from a parallel stream only costs an extra cache lookup
+    private CopyPlan<Object, V> lastPlan ;
+
+    CopyFunction(Class<V> resultClazz) {
+
+        this.resultClazz = resultClazz ;
+    }
+
+    @Override
+    public V apply(Object copiedTarget) {
+
+        CopyPlan<Object, V> copyPlan = lastPlan ;
+
+        if (copyPlan == null || copyPlan.getSourceClass() != copiedTarget.getClass()) {
+
+            copyPlan = AkiEntityCopyUtil.getCopyPlan(copiedTarget.getClass(), resultClazz) ;
+            lastPlan = copyPlan ;
+        }
+
+        return AkiEntityCopyUtil.copyWithPlan(copyPlan, copiedTarget) ;
+    }
+}
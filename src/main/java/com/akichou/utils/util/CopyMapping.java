@@ -0,0 +1,133 @@
+package com.akichou.utils.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Mapping rules of one (source class, target class) pair, registered with
+ * {@link AkiEntityCopyUtil#registerMapping(CopyMapping)} and applied when the pair's copy plan is compiled.
+ * Rules are keyed by target property name.
+ *
+ * <pre>
+ * {@code
+ *     AkiEntityCopyUtil.registerMapping(CopyMapping.builder(User.class, UserDto.class)
+ *                                                  .rename("createdAt", "createdTime")
+ *                                                  .ignore("password")
+ *                                                  .convert("status", (Status status) -> status.getCode())
+ *                                                  .build()) ;
+ * }
+ * </pre>
+ * @param <S> Source type.
+ * @param <T> Target type.
+ */
+public final class CopyMapping<S, T> {
+
+    private final Class<S> sourceClass ;
+    private final Class<T> targetClass ;
+
+    // Target property name -> source property name
+    private final Map<String, String> renamedProperties ;
+    private final Set<String> ignoredProperties ;
+    private final Map<String, Function<Object, Object>> propertyConverters ;
+
+    private CopyMapping(Builder<S, T> builder) {
+
+        this.sourceClass = builder.sourceClass ;
+        this.targetClass = builder.targetClass ;
+        this.renamedProperties = Map.copyOf(builder.renamedProperties) ;
+        this.ignoredProperties = Set.copyOf(builder.ignoredProperties) ;
+        this.propertyConverters = Map.copyOf(builder.propertyConverters) ;
+    }
+
+    public static <S, T> Builder<S, T> builder(Class<S> sourceClass, Class<T> targetClass) {
+
+        return new Builder<>(sourceClass, targetClass) ;
+    }
+
+    public Class<S> getSourceClass() {
+
+        return sourceClass ;
+    }
+
+    public Class<T> getTargetClass() {
+
+        return targetClass ;
+    }
+
+    String getSourceProperty(String targetProperty) {
+
+        return renamedProperties.getOrDefault(targetProperty, targetProperty) ;
+    }
+
+    // Target property name -> source property name, for the renamed properties only
+    Map<String, String> getRenamedProperties() {
+
+        return renamedProperties ;
+    }
+
+    boolean isIgnored(String targetProperty) {
+
+        return ignoredProperties.contains(targetProperty) ;
+    }
+
+    // Null when the property has no dedicated converter
+    Function<Object, Object> getConverter(String targetProperty) {
+
+        return propertyConverters.get(targetProperty) ;
+    }
+
+    public static final class Builder<S, T> {
+
+        private final Class<S> sourceClass ;
+        private final Class<T> targetClass ;
+
+        private final Map<String, String> renamedProperties = new HashMap<>() ;
+        private final Set<String> ignoredProperties = new HashSet<>() ;
+        private final Map<String, Function<Object, Object>> propertyConverters = new HashMap<>() ;
+
+        private Builder(Class<S> sourceClass, Class<T> targetClass) {
+
+            this.sourceClass = sourceClass ;
+            this.targetClass = targetClass ;
+        }
+
+        // Fill targetProperty from sourceProperty instead of the source property of the same name, the pair's plan fails to compile if the source has no such property
+        public Builder<S, T> rename(String sourceProperty, String targetProperty) {
+
+            renamedProperties.put(targetProperty, sourceProperty) ;
+
+            return this ;
+        }
+
+        // Leave targetProperty untouched (or at its default value for constructor-created targets)
+        public Builder<S, T> ignore(String targetProperty) {
+
+            ignoredProperties.add(targetProperty) ;
+
+            return this ;
+        }
+
+        /**
+         * Convert the source value of targetProperty, even when its type is already assignable.
+         * The converter is not called for null source values, and must not return null for a primitive target property.
+         * @param targetProperty Target property name, see {@link #rename(String, String)} for its source.
+         * @param converter Source value to target value.
+         * @return This builder.
+         */
+        @SuppressWarnings("unchecked")
+        public <V> Builder<S, T> convert(String targetProperty, Function<? super V, ?> converter) {
+
+            propertyConverters.put(targetProperty, (Function<Object, Object>) converter) ;
+
+            return this ;
+        }
+
+        public CopyMapping<S, T> build() {
+
+            return new CopyMapping<>(this) ;
+        }
+    }
+}
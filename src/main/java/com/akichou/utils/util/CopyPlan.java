@@ -0,0 +1,175 @@
+package com.akichou.utils.util;
+
+import com.akichou.utils.exception.EntityCopyException;
+
+import java.lang.invoke.MethodHandle;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Compiled copy of one (source class, target class) pair : the target constructor and the matched
+ * getter / setter pairs are resolved once, so a copy is only plain accessor calls.
+ * Records and types without a no-arg constructor are created through their canonical (all-args) constructor
+ * instead, with every argument read straight from the source. {@link #copy(Object)} of a pair with an
+ * {@link com.akichou.utils.mapper.AkiMapper} generated mapping calls that mapping, the rest of the plan stays available.
+ * Obtained from {@link AkiEntityCopyUtil#planFor(Class, Class)}, immutable and thread-safe.
+ *
+ * <pre>
+ * {@code
+ *     private static final CopyPlan<User, UserDto> USER_TO_DTO = AkiEntityCopyUtil.planFor(User.class, UserDto.class) ;
+ *
+ *     UserDto userDto = USER_TO_DTO.copy(user) ;
+ * }
+ * </pre>
+ * @param <S> Source type.
+ * @param <T> Target type.
+ */
+public final class CopyPlan<S, T> {
+
+    private final Class<S> sourceClass ;
+    private final Class<T> targetClass ;
+
+    // Null when the target has no usable no-arg constructor, see instantiationFailure
+    private final Supplier<T> instantiator ;
+    private final Throwable instantiationFailure ;
+
+    // (Object source) -> Object target, set instead of instantiator for constructor-created targets
+    private final MethodHandle creator ;
+
+    private final PropertyCopier[] propertyCopiers ;
+
+    // Compile-time generated mapping of the pair, used by copy only, null when there is none
+    private final Function<S, T> generatedMapping ;
+
+    CopyPlan(Class<S> sourceClass,
+             Class<T> targetClass,
+             Supplier<T> instantiator,
+             Throwable instantiationFailure,
+             MethodHandle creator,
+             PropertyCopier[] propertyCopiers) {
+
+        this(sourceClass, targetClass, instantiator, instantiationFailure, creator, propertyCopiers, null) ;
+    }
+
+    CopyPlan(Class<S> sourceClass,
+             Class<T> targetClass,
+             Supplier<T> instantiator,
+             Throwable instantiationFailure,
+             MethodHandle creator,
+             PropertyCopier[] propertyCopiers,
+             Function<S, T> generatedMapping) {
+
+        this.sourceClass = sourceClass ;
+        this.targetClass = targetClass ;
+        this.instantiator = instantiator ;
+        this.instantiationFailure = instantiationFailure ;
+        this.creator = creator ;
+        this.propertyCopiers = propertyCopiers ;
+        this.generatedMapping = generatedMapping ;
+    }
+
+    /**
+     * Copy the source into a new target instance.
+     * @param source Source instance.
+     * @return New target instance holding the source's matching properties.
+     */
+    public T copy(S source) {
+
+        if (generatedMapping != null) return generatedMapping.apply(source) ;
+
+        T target = creator != null ? construct(source) : newTarget() ;
+
+        copyProperties(source, target) ;
+
+        return target ;
+    }
+
+    /**
+     * Copy the source into an existing target, overwriting the plan's properties and leaving the others untouched.
+     * Allocates nothing beyond what the bean accessors themselves allocate (boxing of non int / long / double values).
+     * @param source Source instance.
+     * @param target Target instance, ex : a DTO reused across a batch.
+     * @return The given target.
+     * @throws EntityCopyException If the target is created through its constructor : the properties it takes there
+     *                             cannot be written into an existing instance.
+     */
+    public T copyInto(S source, T target) {
+
+        if (creator != null) {
+
+            throw new EntityCopyException(targetClass.getName() + " takes properties through its constructor, they cannot be copied into an existing instance", null, false) ;
+        }
+
+        copyProperties(source, target) ;
+
+        return target ;
+    }
+
+    T newTarget() {
+
+        if (creator != null) {
+
+            throw new EntityCopyException(targetClass.getName() + " is created through its constructor, it has no empty instance to copy into", null) ;
+        }
+
+        if (instantiator == null) {
+
+            // Raised on every copy of the pair, the compile-time cause carries the useful trace
+            throw new EntityCopyException("Cannot instantiate " + targetClass.getName(), instantiationFailure, false) ;
+        }
+
+        return instantiator.get() ;
+    }
+
+    private void copyProperties(S source, T target) {
+
+        for (PropertyCopier propertyCopier : propertyCopiers) {
+
+            propertyCopier.copy(source, target) ;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T construct(S source) {
+
+        try {
+
+            return (T) (Object) creator.invokeExact((Object) source) ;
+        } catch (RuntimeException | Error e) {
+
+            throw e ;
+        } catch (Throwable e) {
+
+            throw new EntityCopyException("Cannot construct " + targetClass.getName(), e, false) ;
+        }
+    }
+
+    // Whether targets are created through a constructor taking the source's properties
+    boolean isConstructorBased() {
+
+        return creator != null ;
+    }
+
+    public Class<S> getSourceClass() {
+
+        return sourceClass ;
+    }
+
+    public Class<T> getTargetClass() {
+
+        return targetClass ;
+    }
+
+    // Number of properties transferred per copy through setters, constructor arguments excluded
+    public int getPropertyCount() {
+
+        return propertyCopiers.length ;
+    }
+
+    // Transfers one property from a source instance to a target instance
+    @FunctionalInterface
+    interface PropertyCopier {
+
+        void copy(Object source, Object target) ;
+    }
+}
@@ -0,0 +1,109 @@
+package com.akichou.utils.util;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Copy plans per (source class, target class) pair.
+ * Backed by nested {@link ClassValue}s instead of a static map : the per-source table lives on the source class and
+ * each plan on its target class. Their values only hold the rules and the counters, the source class weakly, so a
+ * cache replaced by a later registration is released with its plans. A plan still keeps its source class reachable
+ * while its target class and the current cache are.
+ */
+final class CopyPlanCache {
+
+    private final CopyRules copyRules ;
+    private final Counters counters ;
+
+    private final PlansBySource plansBySource ;
+
+    CopyPlanCache(CopyRules copyRules) {
+
+        this(copyRules, new Counters()) ;
+    }
+
+    private CopyPlanCache(CopyRules copyRules, Counters counters) {
+
+        this.copyRules = copyRules ;
+        this.counters = counters ;
+        this.plansBySource = new PlansBySource(copyRules, counters) ;
+    }
+
+    // Empty cache for new rules, counting on from this one
+    CopyPlanCache withCopyRules(CopyRules copyRules) {
+
+        return new CopyPlanCache(copyRules, counters) ;
+    }
+
+    CopyRules getCopyRules() {
+
+        return copyRules ;
+    }
+
+    @SuppressWarnings("unchecked")
+    <S, T> CopyPlan<S, T> get(Class<S> sourceClass, Class<T> targetClass) {
+
+        counters.lookupCount.increment() ;
+
+        return (CopyPlan<S, T>) plansBySource.get(sourceClass).get(targetClass) ;
+    }
+
+    CopyPlanStats stats() {
+
+        long compiled = counters.compileCount.sum() ;
+        long lookups = counters.lookupCount.sum() ;
+
+        return new CopyPlanStats(Math.max(0, lookups - compiled), compiled) ;
+    }
+
+    // Shared by every cache built from the first one, so the stats don't reset when the rules change
+    private static final class Counters {
+
+        private final LongAdder lookupCount = new LongAdder() ;
+        private final LongAdder compileCount = new LongAdder() ;
+    }
+
+    private static final class PlansBySource extends ClassValue<PlansByTarget> {
+
+        private final CopyRules copyRules ;
+        private final Counters counters ;
+
+        private PlansBySource(CopyRules copyRules, Counters counters) {
+
+            this.copyRules = copyRules ;
+            this.counters = counters ;
+        }
+
+        @Override
+        protected PlansByTarget computeValue(Class<?> sourceClass) {
+
+            return new PlansByTarget(sourceClass, copyRules, counters) ;
+        }
+    }
+
+    private static final class PlansByTarget extends ClassValue<CopyPlan<?, ?>> {
+
+        private final WeakReference<Class<?>> sourceClass ;
+        private final CopyRules copyRules ;
+        private final Counters counters ;
+
+        private PlansByTarget(Class<?> sourceClass, CopyRules copyRules, Counters counters) {
+
+            this.sourceClass = new WeakReference<>(sourceClass) ;
+            this.copyRules = copyRules ;
+            this.counters = counters ;
+        }
+
+        @Override
+        protected CopyPlan<?, ?> computeValue(Class<?> targetClass) {
+
+            // Only reached through get(sourceClass, ...), which keeps the source class reachable
+            Class<?> source = sourceClass.get() ;
+            if (source == null) throw new IllegalStateException("Source class of the copy plan was unloaded") ;
+
+            counters.compileCount.increment() ;
+
+            return CopyPlanCompiler.compile(source, targetClass, copyRules) ;
+        }
+    }
+}
@@ -0,0 +1,634 @@
+package com.akichou.utils.util;
+
+import com.akichou.utils.exception.EntityCopyException;
+import com.akichou.utils.mapper.AkiMappers;
+import com.akichou.utils.util.CopyPlan.PropertyCopier;
+import com.akichou.utils.util.DeepCopyPlan.DeepArgument;
+import com.akichou.utils.util.DeepCopyPlan.DeepPropertyCopier;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Builds {@link CopyPlan}s with the same property matching as {@link BeanUtils#copyProperties(Object, Object)},
+ * but binds every accessor once through {@link LambdaMetafactory}, so later copies call the accessors without
+ * reflection. The copiers composing them are shared lambda shapes : with many bean pairs their calls are
+ * megamorphic, a copy costs a few interface dispatches per property and is not inlined into the caller.
+ * Accessors that can't be bound that way (ex : the bean lives in another module) fall back to reflection.
+ */
+final class CopyPlanCompiler {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup() ;
+
+    // -Dcopy.generatedMappers=false keeps copyEntity on the compiled plans even where an @AkiMapper declares the pair
+    private static final boolean USE_GENERATED_MAPPERS = Boolean.parseBoolean(System.getProperty("copy.generatedMappers", "true")) ;
+
+    private CopyPlanCompiler() {}
+
+    private static final MethodHandle CONVERT ;
+    private static final MethodHandle CONVERT_TO_PRIMITIVE ;
+
+    static {
+
+        try {
+
+            CONVERT = LOOKUP.findStatic(CopyPlanCompiler.class, "convert",
+                                        MethodType.methodType(Object.class, Function.class, Object.class)) ;
+            CONVERT_TO_PRIMITIVE = LOOKUP.findStatic(CopyPlanCompiler.class, "convertToPrimitive",
+                                                     MethodType.methodType(Object.class, Function.class, String.class, Object.class, Object.class)) ;
+        } catch (ReflectiveOperationException e) {
+
+            throw new ExceptionInInitializerError(e) ;
+        }
+    }
+
+    // Converters, renames and ignores of the rules are resolved here, the plan only holds the resulting copiers
+    static <S, T> CopyPlan<S, T> compile(Class<S> sourceClass, Class<T> targetClass, CopyRules copyRules) {
+
+        CopyMapping<?, ?> mapping = copyRules.getMapping(sourceClass, targetClass) ;
+        if (mapping != null) checkRenamedProperties(sourceClass, mapping) ;
+
+        // A compile-time generated mapper only replaces copy, and knows nothing of registered rules
+        Function<S, T> generatedMapping = USE_GENERATED_MAPPERS && mapping == null && !copyRules.hasConverters()
+                                          ? AkiMappers.findMapping(sourceClass, targetClass)
+                                          : null ;
+
+        Supplier<T> instantiator = null ;
+        Throwable instantiationFailure = null ;
+        MethodHandle creator = null ;
+        Set<String> constructorProperties = Set.of() ;
+
+        Constructor<T> creatorConstructor = findCreatorConstructor(targetClass) ;
+        try {
+
+            if (creatorConstructor == null) {
+
+                instantiator = bindConstructor(targetClass) ;
+            } else {
+
+                String[] parameterNames = getParameterNames(creatorConstructor) ;
+
+                creator = bindCreator(sourceClass, creatorConstructor, parameterNames, copyRules, mapping) ;
+                constructorProperties = Set.of(parameterNames) ;
+            }
+        } catch (Throwable e) {
+
+            instantiationFailure = e ;
+        }
+
+        List<PropertyCopier> propertyCopiers = new ArrayList<>() ;
+
+        for (PropertyDescriptor targetDescriptor : BeanUtils.getPropertyDescriptors(targetClass)) {
+
+            String targetProperty = targetDescriptor.getName() ;
+
+            Method writeMethod = targetDescriptor.getWriteMethod() ;
+            if (writeMethod == null || constructorProperties.contains(targetProperty)) continue ;
+            if (mapping != null && mapping.isIgnored(targetProperty)) continue ;
+
+            Method readMethod = findReadMethod(sourceClass, mapping == null ? targetProperty : mapping.getSourceProperty(targetProperty)) ;
+            if (readMethod == null) continue ;
+
+            Function<Object, Object> converter = mapping == null ? null : mapping.getConverter(targetProperty) ;
+
+            if (converter == null && isAssignable(readMethod, writeMethod)) {
+
+                propertyCopiers.add(bindProperty(readMethod, writeMethod)) ;
+
+                continue ;
+            }
+
+            if (converter == null) converter = copyRules.getConverter(readMethod.getReturnType(), writeMethod.getParameterTypes()[0]) ;
+            if (converter == null) continue ;
+
+            propertyCopiers.add(bindConvertingProperty(readMethod, writeMethod, targetProperty, converter)) ;
+        }
+
+        return new CopyPlan<>(sourceClass, targetClass, instantiator, instantiationFailure, creator,
+                              propertyCopiers.toArray(new PropertyCopier[0]), generatedMapping) ;
+    }
+
+    // Nested properties are also matched when they only map onto each other (ex : List<AddressEntity> to List<AddressDto>)
+    @SuppressWarnings("unchecked")
+    static DeepCopyPlan compileDeep(Class<?> sourceClass, Class<?> targetClass) {
+
+        Supplier<Object> instantiator = null ;
+        Throwable instantiationFailure = null ;
+        MethodHandle constructor = null ;
+        DeepArgument[] constructorArguments = null ;
+        Set<String> constructorProperties = Set.of() ;
+
+        Constructor<?> creatorConstructor = findCreatorConstructor(targetClass) ;
+        try {
+
+            if (creatorConstructor == null) {
+
+                instantiator = (Supplier<Object>) bindConstructor(targetClass) ;
+            } else {
+
+                String[] parameterNames = getParameterNames(creatorConstructor) ;
+
+                constructorArguments = bindDeepArguments(sourceClass, creatorConstructor, parameterNames) ;
+                constructor = bindSpreadConstructor(creatorConstructor) ;
+                constructorProperties = Set.of(parameterNames) ;
+            }
+        } catch (Throwable e) {
+
+            instantiationFailure = e ;
+        }
+
+        List<PropertyCopier> leafCopiers = new ArrayList<>() ;
+        List<DeepPropertyCopier> deepCopiers = new ArrayList<>() ;
+
+        for (PropertyDescriptor targetDescriptor : BeanUtils.getPropertyDescriptors(targetClass)) {
+
+            Method writeMethod = targetDescriptor.getWriteMethod() ;
+            if (writeMethod == null || constructorProperties.contains(targetDescriptor.getName())) continue ;
+
+            Method readMethod = findReadMethod(sourceClass, targetDescriptor.getName()) ;
+            if (readMethod == null) continue ;
+
+            ResolvableType targetType = ResolvableType.forMethodParameter(writeMethod, 0) ;
+
+            if (DeepCopier.isLeaf(writeMethod.getParameterTypes()[0])) {
+
+                if (isAssignable(readMethod, writeMethod)) leafCopiers.add(bindProperty(readMethod, writeMethod)) ;
+
+                continue ;
+            }
+
+            if (!isAssignable(readMethod, writeMethod)
+                    && !DeepCopier.isMappable(readMethod.getReturnType(), writeMethod.getParameterTypes()[0])) continue ;
+
+            deepCopiers.add(bindDeepProperty(readMethod, writeMethod, DeepCopier.forType(targetType))) ;
+        }
+
+        CopyPlan<Object, Object> leafPlan = new CopyPlan<>((Class<Object>) sourceClass, (Class<Object>) targetClass,
+                                                           instantiator, instantiationFailure, null,
+                                                           leafCopiers.toArray(new PropertyCopier[0])) ;
+
+        return new DeepCopyPlan(leafPlan, deepCopiers.toArray(new DeepPropertyCopier[0]), constructor, constructorArguments) ;
+    }
+
+    // A renamed property missing from the source would silently leave its target property empty
+    private static void checkRenamedProperties(Class<?> sourceClass, CopyMapping<?, ?> mapping) {
+
+        mapping.getRenamedProperties().forEach((targetProperty, sourceProperty) -> {
+
+            if (findReadMethod(sourceClass, sourceProperty) == null) {
+
+                throw new EntityCopyException("Cannot rename " + sourceClass.getName() + "." + sourceProperty + " to "
+                                              + mapping.getTargetClass().getName() + "." + targetProperty + " : the source has no such readable property", null) ;
+            }
+        }) ;
+    }
+
+    // Getter, or the accessor of a record component (name())
+    private static Method findReadMethod(Class<?> sourceClass, String propertyName) {
+
+        PropertyDescriptor sourceDescriptor = BeanUtils.getPropertyDescriptor(sourceClass, propertyName) ;
+        if (sourceDescriptor != null && sourceDescriptor.getReadMethod() != null) return sourceDescriptor.getReadMethod() ;
+
+        if (sourceClass.isRecord()) {
+
+            for (RecordComponent recordComponent : sourceClass.getRecordComponents()) {
+
+                if (recordComponent.getName().equals(propertyName)) return recordComponent.getAccessor() ;
+            }
+        }
+
+        return null ;
+    }
+
+    private static boolean isAssignable(Method readMethod, Method writeMethod) {
+
+        return isAssignable(readMethod, ResolvableType.forMethodParameter(writeMethod, 0), writeMethod.getParameterTypes()[0]) ;
+    }
+
+    // Same rule as BeanUtils.copyProperties : generic-aware when both sides are fully resolvable
+    private static boolean isAssignable(Method readMethod, ResolvableType targetType, Class<?> targetRawType) {
+
+        ResolvableType sourceType = ResolvableType.forMethodReturnType(readMethod) ;
+
+        if (sourceType.hasUnresolvableGenerics() || targetType.hasUnresolvableGenerics()) {
+
+            return ClassUtils.isAssignable(targetRawType, readMethod.getReturnType()) ;
+        }
+
+        return targetType.isAssignableFrom(sourceType) ;
+    }
+
+    // Canonical constructor of a record, or the single constructor of a type without a no-arg one, else null.
+    // A no-arg constructor of any visibility keeps the bean on the instantiate-then-set path, as before records were supported
+    private static <T> Constructor<T> findCreatorConstructor(Class<T> targetClass) {
+
+        if (targetClass.isRecord()) {
+
+            Class<?>[] componentTypes = Arrays.stream(targetClass.getRecordComponents())
+                                              .map(RecordComponent::getType)
+                                              .toArray(Class<?>[]::new) ;
+
+            try {
+
+                return targetClass.getDeclaredConstructor(componentTypes) ;
+            } catch (NoSuchMethodException e) {
+
+                // Every record declares its canonical constructor
+                throw new IllegalStateException(e) ;
+            }
+        }
+
+        if (targetClass.isInterface() || Modifier.isAbstract(targetClass.getModifiers())) return null ;
+
+        try {
+
+            targetClass.getDeclaredConstructor() ;
+
+            return null ;
+        } catch (NoSuchMethodException e) {
+
+            // No no-arg constructor, the properties can only be passed through a constructor
+        }
+
+        try {
+
+            Constructor<T> constructor = BeanUtils.getResolvableConstructor(targetClass) ;
+
+            return constructor.getParameterCount() == 0 ? null : constructor ;
+        } catch (IllegalStateException e) {
+
+            // Several constructors and no default one, left to bindConstructor to report
+            return null ;
+        }
+    }
+
+    // Record component names, @ConstructorProperties, or the names compiled with -parameters
+    private static String[] getParameterNames(Constructor<?> constructor) {
+
+        Class<?> declaringClass = constructor.getDeclaringClass() ;
+
+        if (declaringClass.isRecord()) {
+
+            return Arrays.stream(declaringClass.getRecordComponents())
+                         .map(RecordComponent::getName)
+                         .toArray(String[]::new) ;
+        }
+
+        return BeanUtils.getParameterNames(constructor) ;
+    }
+
+    /**
+     * Bind (Object source) -> Object target : the constructor with each argument filtered by the matching source
+     * accessor (and converter), all of them fed the same source. Parameters without an assignable or convertible
+     * source property get their type's default value (null, 0, false).
+     */
+    private static MethodHandle bindCreator(Class<?> sourceClass,
+                                            Constructor<?> constructor,
+                                            String[] parameterNames,
+                                            CopyRules copyRules,
+                                            CopyMapping<?, ?> mapping) throws Throwable {
+
+        ReflectionUtils.makeAccessible(constructor) ;
+
+        Class<?>[] parameterTypes = constructor.getParameterTypes() ;
+        MethodHandle[] arguments = new MethodHandle[parameterTypes.length] ;
+
+        for (int i = 0 ; i < parameterTypes.length ; i ++) {
+
+            arguments[i] = MethodHandles.dropArguments(MethodHandles.zero(parameterTypes[i]), 0, Object.class) ;
+
+            if (mapping != null && mapping.isIgnored(parameterNames[i])) continue ;
+
+            Method readMethod = findReadMethod(sourceClass, mapping == null ? parameterNames[i] : mapping.getSourceProperty(parameterNames[i])) ;
+            if (readMethod == null) continue ;
+
+            ReflectionUtils.makeAccessible(readMethod) ;
+            MethodHandle getter = LOOKUP.unreflect(readMethod) ;
+
+            Function<Object, Object> converter = mapping == null ? null : mapping.getConverter(parameterNames[i]) ;
+
+            if (converter == null && isAssignable(readMethod, ResolvableType.forConstructorParameter(constructor, i), parameterTypes[i])) {
+
+                arguments[i] = getter.asType(MethodType.methodType(parameterTypes[i], Object.class)) ;
+
+                continue ;
+            }
+
+            if (converter == null) converter = copyRules.getConverter(readMethod.getReturnType(), parameterTypes[i]) ;
+            if (converter == null) continue ;
+
+            // A null source value gives the primitive's default, a null converted value fails
+            MethodHandle convert = parameterTypes[i].isPrimitive()
+                                   ? MethodHandles.insertArguments(CONVERT_TO_PRIMITIVE, 0, converter,
+                                                                   constructor.getDeclaringClass().getName() + "." + parameterNames[i],
+                                                                   Array.get(Array.newInstance(parameterTypes[i], 1), 0))
+                                   : CONVERT.bindTo(converter) ;
+
+            arguments[i] = MethodHandles.filterReturnValue(getter.asType(MethodType.methodType(Object.class, Object.class)), convert)
+                                        .asType(MethodType.methodType(parameterTypes[i], Object.class)) ;
+        }
+
+        MethodHandle filtered = MethodHandles.filterArguments(LOOKUP.unreflectConstructor(constructor), 0, arguments)
+                                             .asType(MethodType.methodType(Object.class, Collections.nCopies(arguments.length, Object.class))) ;
+
+        return MethodHandles.permuteArguments(filtered, MethodType.methodType(Object.class, Object.class), new int[arguments.length]) ;
+    }
+
+    /**
+     * Deep counterpart of bindCreator : each argument is read from the matching source property and copied by the
+     * value copier of the parameter's generic type. Parameters without an assignable or mappable source property,
+     * and primitive ones whose source value is null, get their type's default value.
+     */
+    private static DeepArgument[] bindDeepArguments(Class<?> sourceClass, Constructor<?> constructor, String[] parameterNames) {
+
+        Class<?>[] parameterTypes = constructor.getParameterTypes() ;
+        DeepArgument[] arguments = new DeepArgument[parameterTypes.length] ;
+
+        for (int i = 0 ; i < parameterTypes.length ; i ++) {
+
+            Object defaultValue = parameterTypes[i].isPrimitive() ? Array.get(Array.newInstance(parameterTypes[i], 1), 0) : null ;
+            arguments[i] = (source, context) -> defaultValue ;
+
+            Method readMethod = findReadMethod(sourceClass, parameterNames[i]) ;
+            if (readMethod == null) continue ;
+
+            ResolvableType parameterType = ResolvableType.forConstructorParameter(constructor, i) ;
+            boolean assignable = isAssignable(readMethod, parameterType, parameterTypes[i]) ;
+
+            boolean copyable = DeepCopier.isLeaf(parameterTypes[i]) ? assignable
+                                                                    : assignable || DeepCopier.isMappable(readMethod.getReturnType(), parameterTypes[i]) ;
+            if (!copyable) continue ;
+
+            Function<Object, Object> read = bindReader(readMethod) ;
+            DeepCopier.ValueCopier valueCopier = DeepCopier.forType(parameterType) ;
+
+            arguments[i] = (source, context) -> {
+
+                Object value = valueCopier.copy(read.apply(source), context) ;
+
+                return value == null ? defaultValue : value ;
+            } ;
+        }
+
+        return arguments ;
+    }
+
+    // (Object[] arguments) -> Object target
+    private static MethodHandle bindSpreadConstructor(Constructor<?> constructor) throws IllegalAccessException {
+
+        ReflectionUtils.makeAccessible(constructor) ;
+
+        int parameterCount = constructor.getParameterCount() ;
+
+        return LOOKUP.unreflectConstructor(constructor)
+                     .asType(MethodType.genericMethodType(parameterCount))
+                     .asSpreader(Object[].class, parameterCount) ;
+    }
+
+    private static <T> Supplier<T> bindConstructor(Class<T> targetClass) throws Throwable {
+
+        if (Modifier.isAbstract(targetClass.getModifiers())) {
+
+            throw new InstantiationException(targetClass.getName() + " is abstract") ;
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(targetClass, LOOKUP) ;
+        MethodHandle constructor = lookup.findConstructor(targetClass, MethodType.methodType(void.class)) ;
+
+        return bind(lookup, "get", Supplier.class, MethodType.methodType(Object.class), constructor) ;
+    }
+
+    private static PropertyCopier bindProperty(Method readMethod, Method writeMethod) {
+
+        try {
+
+            return bindLambdas(readMethod, writeMethod) ;
+        } catch (Throwable e) {
+
+            return reflectiveCopier(readMethod, writeMethod) ;
+        }
+    }
+
+    // Primitive-to-same-primitive pairs get specialized functional interfaces, so int / long / double never box
+    private static PropertyCopier bindLambdas(Method readMethod, Method writeMethod) throws Throwable {
+
+        Class<?> sourceClass = readMethod.getDeclaringClass() ;
+        Class<?> targetClass = writeMethod.getDeclaringClass() ;
+        Class<?> valueType = readMethod.getReturnType() ;
+        Class<?> parameterType = writeMethod.getParameterTypes()[0] ;
+
+        MethodHandles.Lookup sourceLookup = MethodHandles.privateLookupIn(sourceClass, LOOKUP) ;
+        MethodHandles.Lookup targetLookup = MethodHandles.privateLookupIn(targetClass, LOOKUP) ;
+
+        MethodHandle getter = sourceLookup.unreflect(readMethod) ;
+        MethodHandle setter = targetLookup.unreflect(writeMethod) ;
+
+        if (valueType == parameterType && valueType == int.class) {
+
+            ToIntFunction<Object> read = bind(sourceLookup, "applyAsInt", ToIntFunction.class,
+                                              MethodType.methodType(int.class, Object.class), getter) ;
+            ObjIntConsumer<Object> write = bind(targetLookup, "accept", ObjIntConsumer.class,
+                                                MethodType.methodType(void.class, Object.class, int.class), setter) ;
+
+            return (source, target) -> write.accept(target, read.applyAsInt(source)) ;
+        }
+
+        if (valueType == parameterType && valueType == long.class) {
+
+            ToLongFunction<Object> read = bind(sourceLookup, "applyAsLong", ToLongFunction.class,
+                                               MethodType.methodType(long.class, Object.class), getter) ;
+            ObjLongConsumer<Object> write = bind(targetLookup, "accept", ObjLongConsumer.class,
+                                                 MethodType.methodType(void.class, Object.class, long.class), setter) ;
+
+            return (source, target) -> write.accept(target, read.applyAsLong(source)) ;
+        }
+
+        if (valueType == parameterType && valueType == double.class) {
+
+            ToDoubleFunction<Object> read = bind(sourceLookup, "applyAsDouble", ToDoubleFunction.class,
+                                                 MethodType.methodType(double.class, Object.class), getter) ;
+            ObjDoubleConsumer<Object> write = bind(targetLookup, "accept", ObjDoubleConsumer.class,
+                                                   MethodType.methodType(void.class, Object.class, double.class), setter) ;
+
+            return (source, target) -> write.accept(target, read.applyAsDouble(source)) ;
+        }
+
+        Function<Object, Object> read = bindGetter(sourceLookup, getter) ;
+        BiConsumer<Object, Object> write = bindSetter(targetLookup, setter) ;
+
+        return (source, target) -> write.accept(target, read.apply(source)) ;
+    }
+
+    static Function<Object, Object> bindGetter(MethodHandles.Lookup lookup, MethodHandle getter) throws Throwable {
+
+        return bind(lookup, "apply", Function.class, MethodType.methodType(Object.class, Object.class), getter) ;
+    }
+
+    static BiConsumer<Object, Object> bindSetter(MethodHandles.Lookup lookup, MethodHandle setter) throws Throwable {
+
+        return bind(lookup, "accept", BiConsumer.class, MethodType.methodType(void.class, Object.class, Object.class), setter) ;
+    }
+
+    // Implement the functional interface with the accessor, boxing / unboxing the value where the slot types differ
+    @SuppressWarnings("unchecked")
+    private static <F> F bind(MethodHandles.Lookup lookup,
+                              String interfaceMethodName,
+                              Class<?> interfaceClass,
+                              MethodType interfaceMethodType,
+                              MethodHandle accessor) throws Throwable {
+
+        MethodType accessorType = accessor.type() ;
+        MethodType instantiatedType = interfaceMethodType ;
+
+        for (int i = 0 ; i < interfaceMethodType.parameterCount() ; i ++) {
+
+            if (!interfaceMethodType.parameterType(i).isPrimitive()) {
+
+                instantiatedType = instantiatedType.changeParameterType(i, ClassUtils.resolvePrimitiveIfNecessary(accessorType.parameterType(i))) ;
+            }
+        }
+
+        // void counts as primitive, so a void interface method keeps ignoring the accessor's return value
+        if (!interfaceMethodType.returnType().isPrimitive()) {
+
+            instantiatedType = instantiatedType.changeReturnType(ClassUtils.resolvePrimitiveIfNecessary(accessorType.returnType())) ;
+        }
+
+        return (F) metafactory(lookup, interfaceMethodName, interfaceClass, interfaceMethodType, accessor, instantiatedType).invoke() ;
+    }
+
+    private static MethodHandle metafactory(MethodHandles.Lookup lookup,
+                                            String interfaceMethodName,
+                                            Class<?> interfaceClass,
+                                            MethodType interfaceMethodType,
+                                            MethodHandle implementation,
+                                            MethodType instantiatedType) throws Throwable {
+
+        CallSite callSite = LambdaMetafactory.metafactory(lookup,
+                                                          interfaceMethodName,
+                                                          MethodType.methodType(interfaceClass),
+                                                          interfaceMethodType,
+                                                          implementation,
+                                                          instantiatedType) ;
+
+        return callSite.getTarget() ;
+    }
+
+    private static DeepPropertyCopier bindDeepProperty(Method readMethod, Method writeMethod, DeepCopier.ValueCopier valueCopier) {
+
+        Function<Object, Object> read = bindReader(readMethod) ;
+        BiConsumer<Object, Object> write = bindWriter(writeMethod) ;
+
+        return (source, target, context) -> write.accept(target, valueCopier.copy(read.apply(source), context)) ;
+    }
+
+    // A null source value is written as null, or leaves a primitive target property untouched
+    private static PropertyCopier bindConvertingProperty(Method readMethod, Method writeMethod, String targetProperty, Function<Object, Object> converter) {
+
+        Function<Object, Object> read = bindReader(readMethod) ;
+        BiConsumer<Object, Object> write = bindWriter(writeMethod) ;
+
+        if (writeMethod.getParameterTypes()[0].isPrimitive()) {
+
+            String propertyName = writeMethod.getDeclaringClass().getName() + "." + targetProperty ;
+
+            return (source, target) -> {
+
+                Object value = read.apply(source) ;
+                if (value != null) write.accept(target, convertToPrimitive(converter, propertyName, null, value)) ;
+            } ;
+        }
+
+        return (source, target) -> write.accept(target, convert(converter, read.apply(source))) ;
+    }
+
+    private static Object convert(Function<Object, Object> converter, Object value) {
+
+        return value == null ? null : converter.apply(value) ;
+    }
+
+    // Null can't be unboxed : fail with the property's name instead of a bare NullPointerException
+    private static Object convertToPrimitive(Function<Object, Object> converter, String propertyName, Object defaultValue, Object value) {
+
+        if (value == null) return defaultValue ;
+
+        Object converted = converter.apply(value) ;
+
+        if (converted == null) {
+
+            throw new EntityCopyException("Converter of primitive property " + propertyName + " returned null", null, false) ;
+        }
+
+        return converted ;
+    }
+
+    private static Function<Object, Object> bindReader(Method readMethod) {
+
+        try {
+
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(readMethod.getDeclaringClass(), LOOKUP) ;
+
+            return bindGetter(lookup, lookup.unreflect(readMethod)) ;
+        } catch (Throwable e) {
+
+            ReflectionUtils.makeAccessible(readMethod) ;
+
+            return source -> ReflectionUtils.invokeMethod(readMethod, source) ;
+        }
+    }
+
+    private static BiConsumer<Object, Object> bindWriter(Method writeMethod) {
+
+        try {
+
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(writeMethod.getDeclaringClass(), LOOKUP) ;
+
+            return bindSetter(lookup, lookup.unreflect(writeMethod)) ;
+        } catch (Throwable e) {
+
+            ReflectionUtils.makeAccessible(writeMethod) ;
+
+            return (target, value) -> ReflectionUtils.invokeMethod(writeMethod, target, value) ;
+        }
+    }
+
+    // Last resort, exactly what BeanUtils does per call
+    private static PropertyCopier reflectiveCopier(Method readMethod, Method writeMethod) {
+
+        ReflectionUtils.makeAccessible(readMethod) ;
+        ReflectionUtils.makeAccessible(writeMethod) ;
+
+        return (source, target) -> {
+
+            Object value = ReflectionUtils.invokeMethod(readMethod, source) ;
+            ReflectionUtils.invokeMethod(writeMethod, target, value) ;
+        } ;
+    }
+}
@@ -0,0 +1,17 @@
+package com.akichou.utils.util;
+
+/**
+ * Snapshot of the copy plan cache of {@link AkiEntityCopyUtil}.
+ * @param hitCount Lookups served by an already compiled plan.
+ * @param compiledCount Plans compiled so far, i.e. lookups which missed. Both count on across the cache rebuilds
+ *                      of {@link AkiEntityCopyUtil#registerConverter} / {@link AkiEntityCopyUtil#registerMapping}.
+ */
+public record CopyPlanStats(long hitCount, long compiledCount) {
+
+    public double hitRate() {
+
+        long total = hitCount + compiledCount ;
+
+        return total == 0 ? 0.0 : (double) hitCount / total ;
+    }
+}
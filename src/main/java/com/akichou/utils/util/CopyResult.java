@@ -0,0 +1,88 @@
+package com.akichou.utils.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of {@link AkiEntityCopyUtil#bulkCopyEntityList(List, Class)} : the copies in source order, with null
+ * at the failed indexes, and the failures as two compact parallel arrays (index, cause).
+ * @param <V> Target type.
+ */
+public final class CopyResult<V> {
+
+    private final List<V> copies ;
+    private final int[] failedIndexes ;
+    private final Throwable[] failureCauses ;
+
+    CopyResult(List<V> copies, int[] failedIndexes, Throwable[] failureCauses) {
+
+        this.copies = copies ;
+        this.failedIndexes = failedIndexes ;
+        this.failureCauses = failureCauses ;
+    }
+
+    // Copies in source order, null where the copy failed
+    public List<V> getCopies() {
+
+        return copies ;
+    }
+
+    // Copies of the elements that did not fail
+    public List<V> getSuccessfulCopies() {
+
+        if (failedIndexes.length == 0) return copies ;
+
+        Object[] successfulCopies = new Object[copies.size() - failedIndexes.length] ;
+
+        int failure = 0 ;
+        int copied = 0 ;
+        for (int i = 0 ; i < copies.size() ; i ++) {
+
+            if (failure < failedIndexes.length && failedIndexes[failure] == i) failure ++ ;
+            else successfulCopies[copied ++] = copies.get(i) ;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<V> result = (List<V>) Arrays.asList(successfulCopies) ;
+
+        return Collections.unmodifiableList(result) ;
+    }
+
+    public boolean hasFailures() {
+
+        return failedIndexes.length > 0 ;
+    }
+
+    public int getFailureCount() {
+
+        return failedIndexes.length ;
+    }
+
+    public int getSuccessCount() {
+
+        return copies.size() - failedIndexes.length ;
+    }
+
+    /**
+     * Source index of the nth failure, failures are in source order.
+     * @param failure Failure number, from 0 to {@link #getFailureCount()} - 1.
+     * @return Index of the failed element in the source list.
+     */
+    public int getFailedIndex(int failure) {
+
+        return failedIndexes[failure] ;
+    }
+
+    // Exception thrown while copying the element of the nth failure
+    public Throwable getFailureCause(int failure) {
+
+        return failureCauses[failure] ;
+    }
+
+    // Failed source indexes in ascending order
+    public int[] getFailedIndexes() {
+
+        return failedIndexes.clone() ;
+    }
+}
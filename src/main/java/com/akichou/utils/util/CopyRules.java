@@ -0,0 +1,72 @@
+package com.akichou.utils.util;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable snapshot of the registered type converters and pair mappings, read by {@link CopyPlanCompiler}
+ * only while compiling a plan. Registering a rule produces a new snapshot together with a new plan cache,
+ * so compiled plans never go stale.
+ */
+final class CopyRules {
+
+    static final CopyRules EMPTY = new CopyRules(Map.of(), Map.of()) ;
+
+    private final Map<TypePair, Function<Object, Object>> converters ;
+    private final Map<TypePair, CopyMapping<?, ?>> mappings ;
+
+    private CopyRules(Map<TypePair, Function<Object, Object>> converters, Map<TypePair, CopyMapping<?, ?>> mappings) {
+
+        this.converters = converters ;
+        this.mappings = mappings ;
+    }
+
+    CopyRules withConverter(Class<?> sourceType, Class<?> targetType, Function<Object, Object> converter) {
+
+        Map<TypePair, Function<Object, Object>> newConverters = new HashMap<>(converters) ;
+        newConverters.put(new TypePair(ClassUtils.resolvePrimitiveIfNecessary(sourceType), ClassUtils.resolvePrimitiveIfNecessary(targetType)), converter) ;
+
+        return new CopyRules(Map.copyOf(newConverters), mappings) ;
+    }
+
+    CopyRules withMapping(CopyMapping<?, ?> mapping) {
+
+        Map<TypePair, CopyMapping<?, ?>> newMappings = new HashMap<>(mappings) ;
+        newMappings.put(new TypePair(mapping.getSourceClass(), mapping.getTargetClass()), mapping) ;
+
+        return new CopyRules(converters, Map.copyOf(newMappings)) ;
+    }
+
+    // Whether any type converter is registered
+    boolean hasConverters() {
+
+        return !converters.isEmpty() ;
+    }
+
+    // Converter registered for the source type or its nearest superclass (ex : Enum for any enum), null if none
+    Function<Object, Object> getConverter(Class<?> sourceType, Class<?> targetType) {
+
+        if (converters.isEmpty()) return null ;
+
+        Class<?> boxedTargetType = ClassUtils.resolvePrimitiveIfNecessary(targetType) ;
+
+        for (Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(sourceType) ; type != null ; type = type.getSuperclass()) {
+
+            Function<Object, Object> converter = converters.get(new TypePair(type, boxedTargetType)) ;
+            if (converter != null) return converter ;
+        }
+
+        return null ;
+    }
+
+    // Null when the pair has no registered mapping
+    CopyMapping<?, ?> getMapping(Class<?> sourceClass, Class<?> targetClass) {
+
+        return mappings.isEmpty() ? null : mappings.get(new TypePair(sourceClass, targetClass)) ;
+    }
+
+    private record TypePair(Class<?> sourceType, Class<?> targetType) {}
+}
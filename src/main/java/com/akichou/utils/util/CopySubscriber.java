@@ -0,0 +1,74 @@
+package com.akichou.utils.util;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Subscriber between a source publisher and the downstream subscriber of
+ * {@link AkiEntityCopyUtil#copyEntityPublisher(Flow.Publisher, Class)} : the upstream subscription is handed
+ * down as is, so backpressure is the downstream's own, and each item is copied on the signalling thread.
+ * @param <V> Target type.
+ */
+final class CopySubscriber<T, V> implements Flow.Subscriber<T> {
+
+    private final Flow.Subscriber<? super V> downstream ;
+    private final CopyFunction<V> copyFunction ;
+
+    private Flow.Subscription subscription ;
+
+    // Set once a copy failed, later upstream signals are dropped
+    private boolean done ;
+
+    CopySubscriber(Flow.Subscriber<? super V> downstream, CopyFunction<V> copyFunction) {
+
+        this.downstream = downstream ;
+        this.copyFunction = copyFunction ;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+
+        this.subscription = subscription ;
+
+        downstream.onSubscribe(subscription) ;
+    }
+
+    @Override
+    public void onNext(T item) {
+
+        if (done) return ;
+
+        V copy ;
+
+        try {
+
+            copy = copyFunction.apply(item) ;
+        } catch (RuntimeException e) {
+
+            done = true ;
+            subscription.cancel() ;
+            downstream.onError(e) ;
+
+            return ;
+        }
+
+        downstream.onNext(copy) ;
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+
+        if (done) return ;
+        done = true ;
+
+        downstream.onError(throwable) ;
+    }
+
+    @Override
+    public void onComplete() {
+
+        if (done) return ;
+        done = true ;
+
+        downstream.onComplete() ;
+    }
+}
@@ -0,0 +1,505 @@
+package com.akichou.utils.util;
+
+import com.akichou.utils.exception.EntityCopyException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.ResolvableType;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Deep copy of bean graphs for {@link AkiEntityCopyUtil#deepCopyEntity(Object, Class, int)}.
+ * <p>
+ * Nested beans, collections, maps and arrays are copied, everything else is shared : simple values
+ * (see {@link BeanUtils#isSimpleValueType(Class)}) and other JDK types, which are treated as immutable.
+ * Beans are copied through {@link DeepCopyPlan}s cached per (source class, target class) pair, and the
+ * value copier of every property is resolved from its declared generic type when the plan is compiled.
+ * <p>
+ * Cycles are detected against the current path only : the originals being copied and their copies sit on two
+ * small arrays, and an original met again on that path resolves to its copy. An acyclic graph therefore never
+ * needs an identity map, at the price of copying an object shared by two branches twice. Constructor-created copies
+ * (records ...) only exist once their arguments are copied, so a cycle back to one of them fails instead.
+ */
+final class DeepCopier {
+
+    // Stands for the copy of an original whose constructor arguments are being copied
+    private static final Object UNDER_CONSTRUCTION = new Object() ;
+
+    // Shares the value as is
+    private static final ValueCopier IDENTITY = (value, context) -> value ;
+
+    // Picks the copier from the value's runtime class, for Object / interface / abstract declared types
+    private static final ValueCopier DYNAMIC = (value, context) -> value == null ? null : DeepCopier.forRuntimeClass(value.getClass()).copy(value, context) ;
+
+    private static final ClassValue<ValueCopier> RUNTIME_COPIERS = new ClassValue<>() {
+
+        @Override
+        protected ValueCopier computeValue(Class<?> runtimeClass) {
+
+            if (isLeaf(runtimeClass) || isOpaqueJdkType(runtimeClass)) return IDENTITY ;
+
+            if (Collection.class.isAssignableFrom(runtimeClass)) return new CollectionCopier(copyableCollectionType(runtimeClass), DYNAMIC) ;
+
+            if (Map.class.isAssignableFrom(runtimeClass)) return new MapCopier(copyableMapType(runtimeClass), DYNAMIC, DYNAMIC) ;
+
+            return forType(ResolvableType.forClass(runtimeClass)) ;
+        }
+    } ;
+
+    private static final ClassValue<ValueCopier> TOP_LEVEL_COPIERS = new ClassValue<>() {
+
+        @Override
+        protected ValueCopier computeValue(Class<?> resultClass) {
+
+            return forType(ResolvableType.forClass(resultClass)) ;
+        }
+    } ;
+
+    private static final ClassValue<ClassValue<DeepCopyPlan>> PLANS_BY_SOURCE = new ClassValue<>() {
+
+        @Override
+        protected ClassValue<DeepCopyPlan> computeValue(Class<?> sourceClass) {
+
+            return new ClassValue<>() {
+
+                @Override
+                protected DeepCopyPlan computeValue(Class<?> targetClass) {
+
+                    return CopyPlanCompiler.compileDeep(sourceClass, targetClass) ;
+                }
+            } ;
+        }
+    } ;
+
+    // Public no-arg constructors of concrete collection / map classes, null when there is none
+    private static final ClassValue<Supplier<Object>> CONTAINER_INSTANTIATORS = new ClassValue<>() {
+
+        @Override
+        protected Supplier<Object> computeValue(Class<?> containerClass) {
+
+            if (containerClass.isInterface()
+                    || Modifier.isAbstract(containerClass.getModifiers())
+                    || !Modifier.isPublic(containerClass.getModifiers())) return null ;
+
+            try {
+
+                Constructor<?> constructor = containerClass.getConstructor() ;
+
+                return () -> BeanUtils.instantiateClass(constructor) ;
+            } catch (NoSuchMethodException e) {
+
+                return null ;
+            }
+        }
+    } ;
+
+    private DeepCopier() {}
+
+    static Object copy(Object source, Class<?> resultClass, int maxDepth) {
+
+        return TOP_LEVEL_COPIERS.get(resultClass).copy(source, new DeepCopyContext(maxDepth)) ;
+    }
+
+    // Values of these types are immutable (or treated so) and shared between the source and the copy
+    static boolean isLeaf(Class<?> type) {
+
+        return type.isPrimitive() || BeanUtils.isSimpleValueType(type) ;
+    }
+
+    // Whether a property whose types are not assignable can still be copied by mapping its value
+    static boolean isMappable(Class<?> sourceType, Class<?> targetType) {
+
+        if (sourceType.isArray() || targetType.isArray()) {
+
+            return sourceType.isArray() && targetType.isArray()
+                    && (sourceType.getComponentType() == targetType.getComponentType()
+                        || !sourceType.getComponentType().isPrimitive() && !targetType.getComponentType().isPrimitive()) ;
+        }
+
+        if (Collection.class.isAssignableFrom(sourceType) || Collection.class.isAssignableFrom(targetType)) {
+
+            return Collection.class.isAssignableFrom(sourceType) && Collection.class.isAssignableFrom(targetType) ;
+        }
+
+        if (Map.class.isAssignableFrom(sourceType) || Map.class.isAssignableFrom(targetType)) {
+
+            return Map.class.isAssignableFrom(sourceType) && Map.class.isAssignableFrom(targetType) ;
+        }
+
+        return !isLeaf(sourceType) && !isJdkType(sourceType) && !isJdkType(targetType)
+                && !targetType.isInterface() && !Modifier.isAbstract(targetType.getModifiers()) ;
+    }
+
+    // Copier producing a value of the declared (generic) type
+    static ValueCopier forType(ResolvableType type) {
+
+        Class<?> rawType = type.resolve(Object.class) ;
+
+        if (isLeaf(rawType)) return IDENTITY ;
+
+        if (rawType.isArray()) return new ArrayCopier(rawType.getComponentType(), forType(type.getComponentType())) ;
+
+        if (Collection.class.isAssignableFrom(rawType)) {
+
+            return new CollectionCopier(rawType, forType(type.asCollection().getGeneric(0))) ;
+        }
+
+        if (Map.class.isAssignableFrom(rawType)) {
+
+            ResolvableType mapType = type.asMap() ;
+
+            return new MapCopier(rawType, forType(mapType.getGeneric(0)), forType(mapType.getGeneric(1))) ;
+        }
+
+        if (rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers()) || isJdkType(rawType)) return DYNAMIC ;
+
+        return new BeanCopier(rawType) ;
+    }
+
+    private static ValueCopier forRuntimeClass(Class<?> runtimeClass) {
+
+        return RUNTIME_COPIERS.get(runtimeClass) ;
+    }
+
+    private static boolean isJdkType(Class<?> type) {
+
+        String packageName = type.getPackageName() ;
+
+        return packageName.startsWith("java.") || packageName.startsWith("javax.") || packageName.startsWith("jdk.") ;
+    }
+
+    // JDK values other than containers, ex : Optional, Path, Duration
+    private static boolean isOpaqueJdkType(Class<?> type) {
+
+        return isJdkType(type) && !type.isArray() && !Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type) ;
+    }
+
+    // Immutable / internal JDK implementations (List.of, Collections.unmodifiableSet ...) are copied into their public counterparts
+    private static Class<?> copyableCollectionType(Class<?> runtimeClass) {
+
+        if (CONTAINER_INSTANTIATORS.get(runtimeClass) != null || EnumSet.class.isAssignableFrom(runtimeClass)) return runtimeClass ;
+
+        if (SortedSet.class.isAssignableFrom(runtimeClass)) return SortedSet.class ;
+        if (Set.class.isAssignableFrom(runtimeClass)) return Set.class ;
+        if (List.class.isAssignableFrom(runtimeClass)) return List.class ;
+        if (Queue.class.isAssignableFrom(runtimeClass)) return Queue.class ;
+
+        return Collection.class ;
+    }
+
+    private static Class<?> copyableMapType(Class<?> runtimeClass) {
+
+        if (CONTAINER_INSTANTIATORS.get(runtimeClass) != null || EnumMap.class.isAssignableFrom(runtimeClass)) return runtimeClass ;
+
+        if (SortedMap.class.isAssignableFrom(runtimeClass)) return SortedMap.class ;
+        if (ConcurrentMap.class.isAssignableFrom(runtimeClass)) return ConcurrentMap.class ;
+
+        return Map.class ;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> newCollection(Class<?> collectionType, Collection<?> source) {
+
+        if (source instanceof SortedSet<?> sortedSource && collectionType.isAssignableFrom(TreeSet.class)) {
+
+            return new TreeSet<>((Comparator<Object>) sortedSource.comparator()) ;
+        }
+
+        Supplier<Object> instantiator = CONTAINER_INSTANTIATORS.get(collectionType) ;
+        if (instantiator != null) return (Collection<Object>) instantiator.get() ;
+
+        if (collectionType.isAssignableFrom(TreeSet.class) && NavigableSet.class.isAssignableFrom(collectionType)) return new TreeSet<>() ;
+        if (collectionType.isAssignableFrom(ArrayList.class) && !(source instanceof Set)) return new ArrayList<>(source.size()) ;
+        if (collectionType.isAssignableFrom(LinkedHashSet.class)) return new LinkedHashSet<>(Math.max(16, (int) (source.size() / .75f) + 1)) ;
+        if (collectionType.isAssignableFrom(LinkedList.class)) return new LinkedList<>() ;
+
+        throw new EntityCopyException("Cannot instantiate collection type " + collectionType.getName(), null) ;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> newMap(Class<?> mapType, Map<?, ?> source) {
+
+        if (source instanceof SortedMap<?, ?> sortedSource && mapType.isAssignableFrom(TreeMap.class)) {
+
+            return new TreeMap<>((Comparator<Object>) sortedSource.comparator()) ;
+        }
+
+        Supplier<Object> instantiator = CONTAINER_INSTANTIATORS.get(mapType) ;
+        if (instantiator != null) return (Map<Object, Object>) instantiator.get() ;
+
+        if (mapType.isAssignableFrom(TreeMap.class) && NavigableMap.class.isAssignableFrom(mapType)) return new TreeMap<>() ;
+        if (mapType.isAssignableFrom(ConcurrentSkipListMap.class) && SortedMap.class.isAssignableFrom(mapType)) return new ConcurrentSkipListMap<>() ;
+        if (mapType.isAssignableFrom(ConcurrentHashMap.class) && ConcurrentMap.class.isAssignableFrom(mapType)) return new ConcurrentHashMap<>() ;
+        if (mapType.isAssignableFrom(LinkedHashMap.class)) return new LinkedHashMap<>(Math.max(16, (int) (source.size() / .75f) + 1)) ;
+
+        throw new EntityCopyException("Cannot instantiate map type " + mapType.getName(), null) ;
+    }
+
+    private static Object clonePrimitiveArray(Object array) {
+
+        if (array instanceof int[] values) return values.clone() ;
+        if (array instanceof long[] values) return values.clone() ;
+        if (array instanceof double[] values) return values.clone() ;
+        if (array instanceof byte[] values) return values.clone() ;
+        if (array instanceof char[] values) return values.clone() ;
+        if (array instanceof boolean[] values) return values.clone() ;
+        if (array instanceof float[] values) return values.clone() ;
+
+        return ((short[]) array).clone() ;
+    }
+
+    // Copies one value into the type it was resolved for
+    @FunctionalInterface
+    interface ValueCopier {
+
+        Object copy(Object value, DeepCopyContext context) ;
+    }
+
+    /**
+     * State of one deep copy : the path from the root to the value being copied, as parallel arrays of
+     * originals and their (partially filled) copies.
+     */
+    static final class DeepCopyContext {
+
+        private final int maxDepth ;
+
+        private Object[] originals = new Object[16] ;
+        private Object[] copies = new Object[16] ;
+        private int depth ;
+
+        DeepCopyContext(int maxDepth) {
+
+            this.maxDepth = maxDepth ;
+        }
+
+        // Copy of an original that is its own ancestor, or null
+        Object findAncestorCopy(Object original, Class<?> copyType) {
+
+            for (int i = depth - 1 ; i >= 0 ; i --) {
+
+                if (originals[i] == original && copyType.isInstance(copies[i])) return copies[i] ;
+            }
+
+            return null ;
+        }
+
+        boolean isUnderConstruction(Object original) {
+
+            for (int i = depth - 1 ; i >= 0 ; i --) {
+
+                if (originals[i] == original && copies[i] == UNDER_CONSTRUCTION) return true ;
+            }
+
+            return false ;
+        }
+
+        void push(Object original, Object copy) {
+
+            if (depth == maxDepth) {
+
+                throw new EntityCopyException("Maximum copy depth of " + maxDepth + " exceeded at " + original.getClass().getName(), null, false) ;
+            }
+
+            if (depth == originals.length) {
+
+                originals = Arrays.copyOf(originals, depth * 2) ;
+                copies = Arrays.copyOf(copies, depth * 2) ;
+            }
+
+            originals[depth] = original ;
+            copies[depth] = copy ;
+            depth ++ ;
+        }
+
+        void pop() {
+
+            depth -- ;
+            originals[depth] = null ;
+            copies[depth] = null ;
+        }
+    }
+
+    private static final class BeanCopier implements ValueCopier {
+
+        private final Class<?> beanType ;
+
+        private BeanCopier(Class<?> beanType) {
+
+            this.beanType = beanType ;
+        }
+
+        @Override
+        public Object copy(Object value, DeepCopyContext context) {
+
+            if (value == null) return null ;
+
+            // A subclass instance keeps its own class, an unrelated source is mapped onto the declared type
+            Class<?> copyType = beanType.isInstance(value) ? value.getClass() : beanType ;
+
+            Object ancestorCopy = context.findAncestorCopy(value, copyType) ;
+            if (ancestorCopy != null) return ancestorCopy ;
+
+            DeepCopyPlan deepCopyPlan = PLANS_BY_SOURCE.get(value.getClass()).get(copyType) ;
+
+            Object copy ;
+            if (deepCopyPlan.isConstructorBased()) {
+
+                // Its arguments are copied before the copy exists, a reference back to it cannot be resolved
+                if (context.isUnderConstruction(value)) {
+
+                    throw new EntityCopyException("Cannot deep copy a cycle through the constructor of " + copyType.getName(), null, false) ;
+                }
+
+                context.push(value, UNDER_CONSTRUCTION) ;
+                copy = deepCopyPlan.construct(value, context) ;
+                context.pop() ;
+            } else {
+
+                copy = deepCopyPlan.newTarget() ;
+            }
+
+            context.push(value, copy) ;
+            deepCopyPlan.copyInto(value, copy, context) ;
+            context.pop() ;
+
+            return copy ;
+        }
+    }
+
+    private static final class CollectionCopier implements ValueCopier {
+
+        private final Class<?> collectionType ;
+        private final ValueCopier elementCopier ;
+
+        private CollectionCopier(Class<?> collectionType, ValueCopier elementCopier) {
+
+            this.collectionType = collectionType ;
+            this.elementCopier = elementCopier ;
+        }
+
+        @Override
+        public Object copy(Object value, DeepCopyContext context) {
+
+            if (value == null) return null ;
+
+            // Enum elements are immutable
+            if (value instanceof EnumSet<?> enumSet && collectionType.isInstance(value)) return enumSet.clone() ;
+
+            Object ancestorCopy = context.findAncestorCopy(value, collectionType) ;
+            if (ancestorCopy != null) return ancestorCopy ;
+
+            Collection<?> source = (Collection<?>) value ;
+            Collection<Object> copy = newCollection(collectionType, source) ;
+
+            context.push(value, copy) ;
+            for (Object element : source) copy.add(elementCopier.copy(element, context)) ;
+            context.pop() ;
+
+            return copy ;
+        }
+    }
+
+    private static final class MapCopier implements ValueCopier {
+
+        private final Class<?> mapType ;
+        private final ValueCopier keyCopier ;
+        private final ValueCopier valueCopier ;
+
+        private MapCopier(Class<?> mapType, ValueCopier keyCopier, ValueCopier valueCopier) {
+
+            this.mapType = mapType ;
+            this.keyCopier = keyCopier ;
+            this.valueCopier = valueCopier ;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Object copy(Object value, DeepCopyContext context) {
+
+            if (value == null) return null ;
+
+            Object ancestorCopy = context.findAncestorCopy(value, mapType) ;
+            if (ancestorCopy != null) return ancestorCopy ;
+
+            // Enum keys are immutable, only the values are copied
+            if (value instanceof EnumMap enumMap && mapType.isInstance(value)) {
+
+                EnumMap<?, Object> copy = new EnumMap<>(enumMap) ;
+
+                context.push(value, copy) ;
+                copy.replaceAll((key, entryValue) -> valueCopier.copy(entryValue, context)) ;
+                context.pop() ;
+
+                return copy ;
+            }
+
+            Map<?, ?> source = (Map<?, ?>) value ;
+            Map<Object, Object> copy = newMap(mapType, source) ;
+
+            context.push(value, copy) ;
+            for (Map.Entry<?, ?> entry : source.entrySet()) {
+
+                copy.put(keyCopier.copy(entry.getKey(), context), valueCopier.copy(entry.getValue(), context)) ;
+            }
+            context.pop() ;
+
+            return copy ;
+        }
+    }
+
+    private static final class ArrayCopier implements ValueCopier {
+
+        private final Class<?> componentType ;
+        private final ValueCopier elementCopier ;
+
+        private ArrayCopier(Class<?> componentType, ValueCopier elementCopier) {
+
+            this.componentType = componentType ;
+            this.elementCopier = elementCopier ;
+        }
+
+        @Override
+        public Object copy(Object value, DeepCopyContext context) {
+
+            if (value == null) return null ;
+
+            if (componentType.isPrimitive()) return clonePrimitiveArray(value) ;
+
+            Object ancestorCopy = context.findAncestorCopy(value, componentType.arrayType()) ;
+            if (ancestorCopy != null) return ancestorCopy ;
+
+            Object[] source = (Object[]) value ;
+            Object[] copy = (Object[]) Array.newInstance(componentType, source.length) ;
+
+            context.push(value, copy) ;
+            for (int i = 0 ; i < source.length ; i ++) copy[i] = elementCopier.copy(source[i], context) ;
+            context.pop() ;
+
+            return copy ;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.akichou.utils.util;
+
+import com.akichou.utils.exception.EntityCopyException;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Deep variant of a {@link CopyPlan} : leaf properties (primitives, strings, numbers, dates, enums ...) go through
+ * the shallow plan's bound copiers, every other matched property is copied through its {@link DeepCopier.ValueCopier}.
+ * Constructor-created targets (records ...) get their constructor arguments copied the same way before the constructor
+ * is called, then their remaining setters.
+ */
+final class DeepCopyPlan {
+
+    private final CopyPlan<Object, Object> leafPlan ;
+    private final DeepPropertyCopier[] deepPropertyCopiers ;
+
+    // (Object[] arguments) -> Object target, null when targets are created through the leaf plan's no-arg constructor
+    private final MethodHandle constructor ;
+    private final DeepArgument[] constructorArguments ;
+
+    DeepCopyPlan(CopyPlan<Object, Object> leafPlan, DeepPropertyCopier[] deepPropertyCopiers) {
+
+        this(leafPlan, deepPropertyCopiers, null, null) ;
+    }
+
+    DeepCopyPlan(CopyPlan<Object, Object> leafPlan,
+                 DeepPropertyCopier[] deepPropertyCopiers,
+                 MethodHandle constructor,
+                 DeepArgument[] constructorArguments) {
+
+        this.leafPlan = leafPlan ;
+        this.deepPropertyCopiers = deepPropertyCopiers ;
+        this.constructor = constructor ;
+        this.constructorArguments = constructorArguments ;
+    }
+
+    // Whether targets are created through construct instead of newTarget
+    boolean isConstructorBased() {
+
+        return constructor != null ;
+    }
+
+    // Copy every constructor argument with the context, then call the constructor
+    Object construct(Object source, DeepCopier.DeepCopyContext context) {
+
+        Object[] arguments = new Object[constructorArguments.length] ;
+
+        for (int i = 0 ; i < arguments.length ; i ++) arguments[i] = constructorArguments[i].copy(source, context) ;
+
+        try {
+
+            return constructor.invokeExact(arguments) ;
+        } catch (RuntimeException | Error e) {
+
+            throw e ;
+        } catch (Throwable e) {
+
+            throw new EntityCopyException("Cannot construct " + leafPlan.getTargetClass().getName(), e, false) ;
+        }
+    }
+
+    Object newTarget() {
+
+        return leafPlan.newTarget() ;
+    }
+
+    void copyInto(Object source, Object target, DeepCopier.DeepCopyContext context) {
+
+        leafPlan.copyInto(source, target) ;
+
+        for (DeepPropertyCopier deepPropertyCopier : deepPropertyCopiers) {
+
+            deepPropertyCopier.copy(source, target, context) ;
+        }
+    }
+
+    // Transfers one nested property, copying its value instead of sharing it
+    @FunctionalInterface
+    interface DeepPropertyCopier {
+
+        void copy(Object source, Object target, DeepCopier.DeepCopyContext context) ;
+    }
+
+    // Produces one constructor argument from the source
+    @FunctionalInterface
+    interface DeepArgument {
+
+        Object copy(Object source, DeepCopier.DeepCopyContext context) ;
+    }
+}
@@ -0,0 +1,168 @@
+package com.akichou.utils.log;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AkiAuditLogTest {
+
+    @TempDir
+    Path directory ;
+
+    @Test
+    void sequenceNumbersContinueAcrossRestarts() throws Exception {
+
+        try (AkiAuditLog auditLog = AkiAuditLog.open(directory)) {
+
+            for (int i = 1 ; i <= 10 ; i ++) assertEquals(i, append(auditLog, "first-" + i)) ;
+        }
+
+        try (AkiAuditLog auditLog = AkiAuditLog.open(directory)) {
+
+            assertEquals(11, append(auditLog, "second")) ;
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L), replayedSequences(0)) ;
+        assertEquals(List.of(10L, 11L), replayedSequences(10)) ;
+    }
+
+    @Test
+    void recoveryDropsEverythingAfterTheLastValidRecord() throws Exception {
+
+        try (AkiAuditLog auditLog = AkiAuditLog.open(directory)) {
+
+            for (int i = 1 ; i <= 3 ; i ++) append(auditLog, "op-" + i) ;
+        }
+
+        Path segment = onlySegment() ;
+        long validSize = Files.size(segment) ;
+
+        // A complete line that does not parse, then a torn one
+        Files.writeString(segment, "{\"sequence\":4,\"time\n{\"sequence\":5", StandardCharsets.UTF_8, StandardOpenOption.APPEND) ;
+
+        try (AkiAuditLog auditLog = AkiAuditLog.open(directory)) {
+
+            assertEquals(validSize, Files.size(segment)) ;
+            assertEquals(4, append(auditLog, "op-4")) ;
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), replayedSequences(0)) ;
+    }
+
+    @Test
+    void recoveryOfASegmentWithoutValidRecordKeepsItsFirstSequence() throws Exception {
+
+        Files.writeString(directory.resolve(String.format("audit-%020d.jsonl", 42)), "not json\n{\"torn", StandardCharsets.UTF_8) ;
+
+        try (AkiAuditLog auditLog = AkiAuditLog.open(directory)) {
+
+            assertEquals(42, append(auditLog, "op")) ;
+        }
+
+        assertEquals(List.of(42L), replayedSequences(0)) ;
+    }
+
+    @Test
+    void appendRacingWithCloseEitherFailsFastOrIsWritten() throws Exception {
+
+        AkiAuditLog auditLog = AkiAuditLog.open(directory) ;
+
+        int threads = 4 ;
+        ExecutorService executor = Executors.newFixedThreadPool(threads) ;
+        CountDownLatch start = new CountDownLatch(1) ;
+
+        try {
+
+            List<Future<List<CompletableFuture<Long>>>> workers = new ArrayList<>() ;
+
+            for (int t = 0 ; t < threads ; t ++) {
+
+                workers.add(executor.submit(() -> {
+
+                    List<CompletableFuture<Long>> futures = new ArrayList<>() ;
+                    start.await() ;
+
+                    try {
+
+                        while (true) futures.add(auditLog.append(AkiAuditRecord.Type.NORMAL, "op", "user", null)) ;
+                    } catch (IllegalStateException e) {
+
+                        return futures ;
+                    }
+                })) ;
+            }
+
+            start.countDown() ;
+            Thread.sleep(50) ;
+            auditLog.close() ;
+
+            long written = 0 ;
+            for (Future<List<CompletableFuture<Long>>> worker : workers) {
+
+                // Every future accepted before close is completed by it
+                for (CompletableFuture<Long> future : worker.get(1, TimeUnit.MINUTES)) {
+
+                    assertTrue(future.isDone()) ;
+                    if (!future.isCompletedExceptionally()) written ++ ;
+                }
+            }
+
+            assertEquals(written, replayedSequences(0).size()) ;
+        } finally {
+
+            executor.shutdownNow() ;
+        }
+    }
+
+    @Test
+    void appendAfterCloseFails() {
+
+        AkiAuditLog auditLog = AkiAuditLog.open(directory) ;
+        auditLog.close() ;
+
+        assertThrows(IllegalStateException.class, () -> auditLog.append(AkiAuditRecord.Type.NORMAL, "op", "user", null)) ;
+    }
+
+    private static long append(AkiAuditLog auditLog, String operation) throws ExecutionException, InterruptedException {
+
+        return auditLog.append(AkiAuditRecord.Type.NORMAL, operation, "user", null).get() ;
+    }
+
+    private List<Long> replayedSequences(long fromSequence) {
+
+        List<Long> sequences = new ArrayList<>() ;
+
+        AkiAuditLog.replay(directory, fromSequence, auditRecord -> sequences.add(auditRecord.sequence())) ;
+
+        return sequences ;
+    }
+
+    private Path onlySegment() throws Exception {
+
+        try (Stream<Path> files = Files.list(directory)) {
+
+            List<Path> segments = files.toList() ;
+            assertEquals(1, segments.size()) ;
+
+            return segments.get(0) ;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.akichou.utils.log;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AkiJsonLayoutTest {
+
+    @Test
+    void stackFramesAreWrittenAsFields() throws Exception {
+
+        IllegalStateException exception = new IllegalStateException("boom", new IllegalArgumentException("cause")) ;
+        exception.setStackTrace(new StackTraceElement[] {
+                new StackTraceElement("com.example.Service", "run", "Service.java", 42),
+                new StackTraceElement(null, "java.base", null, "java.lang.Thread", "sleep", null, -2),
+                new StackTraceElement("com.example.Generated", "call", null, -1)
+        }) ;
+
+        Log4jLogEvent event = Log4jLogEvent.newBuilder()
+                                           .setLoggerName("AkiJsonLayoutTest")
+                                           .setLevel(Level.ERROR)
+                                           .setMessage(new SimpleMessage("failed"))
+                                           .setThrown(exception)
+                                           .build() ;
+
+        JsonNode json = new ObjectMapper().readTree(AkiJsonLayout.createLayout().toSerializable(event)) ;
+        JsonNode stack = json.get("exception").get("stack") ;
+
+        assertEquals("java.lang.IllegalStateException", json.get("exception").get("class").asText()) ;
+        assertEquals("java.lang.IllegalArgumentException", json.get("exception").get("cause").get("class").asText()) ;
+        assertEquals(3, stack.size()) ;
+
+        assertEquals("com.example.Service", stack.get(0).get("class").asText()) ;
+        assertEquals("run", stack.get(0).get("method").asText()) ;
+        assertEquals("Service.java", stack.get(0).get("file").asText()) ;
+        assertEquals(42, stack.get(0).get("line").asInt()) ;
+        assertFalse(stack.get(0).has("module")) ;
+
+        assertEquals("java.base", stack.get(1).get("module").asText()) ;
+        assertTrue(stack.get(1).get("native").asBoolean()) ;
+        assertFalse(stack.get(1).has("line")) ;
+
+        assertFalse(stack.get(2).has("file")) ;
+        assertFalse(stack.get(2).has("line")) ;
+    }
+}
@@ -0,0 +1,97 @@
+package com.akichou.utils.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AkiLogSamplerTest {
+
+    private static final String LOGGER_NAME = "com.akichou.test.SamplerSummary" ;
+
+    @Test
+    void suppressedEventsAreSummarizedWithoutAnotherAdmittedEvent() throws Exception {
+
+        AkiLogSampler sampler = AkiLogSampler.firstThenEvery(1, Long.MAX_VALUE).summaryInterval(Duration.ofMillis(50)) ;
+
+        AkiLogger akiLogger = new AkiLogger(LOGGER_NAME) ;
+        akiLogger.setErrorSampler(sampler) ;
+
+        try (CapturingAppender appender = CapturingAppender.attach("AkiLogSamplerTest")) {
+
+            IllegalStateException exception = new IllegalStateException("boom") ;
+
+            // One admitted, then a flood that stops : nothing is ever admitted again in this group
+            for (int i = 0 ; i < 100 ; i ++) akiLogger.errorRootCause("Flood", exception) ;
+
+            assertEquals(1, sampler.getAdmittedCount()) ;
+            assertEquals(99, sampler.getSuppressedCount()) ;
+
+            assertEquals(99, awaitSummarizedCount(appender)) ;
+
+            // Reported once, the counter starts over
+            Thread.sleep(200) ;
+            assertEquals(99, summarizedCount(appender.getEvents())) ;
+        }
+    }
+
+    @Test
+    void admittedEventReportsWhatWasSuppressedBeforeIt() {
+
+        AkiLogSampler sampler = AkiLogSampler.firstThenEvery(1, 10).summaryInterval(Duration.ZERO) ;
+
+        AkiLogger akiLogger = new AkiLogger(LOGGER_NAME) ;
+        akiLogger.setErrorSampler(sampler) ;
+
+        try (CapturingAppender appender = CapturingAppender.attach("AkiLogSamplerTest")) {
+
+            IllegalStateException exception = new IllegalStateException("boom") ;
+
+            // Admitted : 1st, then every 10th
+            for (int i = 0 ; i < 11 ; i ++) akiLogger.errorRootCause("Flood", exception) ;
+
+            assertEquals(2, sampler.getAdmittedCount()) ;
+            assertEquals(9, summarizedCount(appender.getEvents())) ;
+        }
+    }
+
+    @Test
+    void negativeSummaryIntervalIsRejected() {
+
+        AkiLogSampler sampler = AkiLogSampler.tokenBucket(5, 20) ;
+
+        assertThrows(IllegalArgumentException.class, () -> sampler.summaryInterval(Duration.ofMillis(-1))) ;
+    }
+
+    private static long awaitSummarizedCount(CapturingAppender appender) throws InterruptedException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10) ;
+
+        long count ;
+        while ((count = summarizedCount(appender.getEvents())) == 0 && System.nanoTime() < deadline) Thread.sleep(10) ;
+
+        return count ;
+    }
+
+    // Total of every "Suppressed X similar events" summary of the test logger
+    private static long summarizedCount(List<LogEvent> events) {
+
+        long count = 0 ;
+
+        for (LogEvent event : events) {
+
+            if (!LOGGER_NAME.equals(event.getLoggerName()) || event.getLevel() != Level.WARN) continue ;
+
+            Object[] parameters = event.getMessage().getParameters() ;
+            count += ((Number) parameters[0]).longValue() ;
+        }
+
+        return count ;
+    }
+}
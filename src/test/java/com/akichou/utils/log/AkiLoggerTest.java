@@ -0,0 +1,98 @@
+package com.akichou.utils.log;
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AkiLoggerTest {
+
+    private static final int THREADS = 8 ;
+    private static final int NAMES_PER_THREAD = 16 ;
+    private static final int EVENTS_PER_NAME = 50 ;
+
+    @Test
+    void eventsKeepTheCategoryOfTheirLoggerUnderConcurrentCreation() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS) ;
+        CountDownLatch start = new CountDownLatch(1) ;
+
+        try (CapturingAppender appender = CapturingAppender.attach("AkiLoggerTest")) {
+
+            List<Future<?>> workers = new ArrayList<>() ;
+
+            for (int t = 0 ; t < THREADS ; t ++) {
+
+                int thread = t ;
+
+                workers.add(executor.submit(() -> {
+
+                    start.await() ;
+
+                    // Every thread keeps creating loggers while the others log, through both constructors
+                    for (int e = 0 ; e < EVENTS_PER_NAME ; e ++) {
+
+                        for (int n = 0 ; n < NAMES_PER_THREAD ; n ++) {
+
+                            String name = categoryName(thread, n) ;
+                            AkiLogger akiLogger = n % 2 == 0 ? new AkiLogger(name) : AkiLoggerFactory.getAkiLogger(name) ;
+
+                            akiLogger.info("{}", name) ;
+                        }
+                    }
+
+                    return null ;
+                })) ;
+            }
+
+            start.countDown() ;
+            for (Future<?> worker : workers) worker.get(1, TimeUnit.MINUTES) ;
+
+            List<LogEvent> events = appender.getEvents() ;
+
+            assertEquals(THREADS * NAMES_PER_THREAD * EVENTS_PER_NAME, events.size()) ;
+
+            for (LogEvent event : events) {
+
+                assertEquals(event.getMessage().getFormattedMessage(), event.getLoggerName()) ;
+            }
+        } finally {
+
+            executor.shutdownNow() ;
+        }
+    }
+
+    @Test
+    void earlierLoggerKeepsItsNameAfterLaterCreations() {
+
+        AkiLogger first = new AkiLogger("com.akichou.test.First") ;
+        new AkiLogger("com.akichou.test.Second") ;
+        new AkiLogger(AkiLoggerTest.class) ;
+
+        assertEquals("com.akichou.test.First", first.getName()) ;
+    }
+
+    @Test
+    void factoryReturnsOneInstancePerName() {
+
+        AkiLogger akiLogger = AkiLoggerFactory.getAkiLogger("com.akichou.test.Cached") ;
+
+        assertSame(akiLogger, AkiLoggerFactory.getAkiLogger("com.akichou.test.Cached")) ;
+        assertTrue(AkiLoggerFactory.getHitCount() > 0) ;
+    }
+
+    private static String categoryName(int thread, int n) {
+
+        return "com.akichou.test.thread" + thread + ".Category" + n ;
+    }
+}
@@ -0,0 +1,28 @@
+package com.akichou.utils.log;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AkiStackTracesTest {
+
+    @Test
+    void dedupeOnlyShortensTheLoggedText() {
+
+        IllegalStateException exception = new IllegalStateException("boom") ;
+
+        String first = AkiStackTraces.appendTo(new StringBuilder(), "failed", exception, true).toString() ;
+        String second = AkiStackTraces.appendTo(new StringBuilder(), "failed", exception, true).toString() ;
+
+        assertTrue(first.contains("\tat " + AkiStackTracesTest.class.getName())) ;
+        assertTrue(second.contains("same as #")) ;
+        assertFalse(second.contains("\tat ")) ;
+
+        // What *AndGet returns keeps the frames, however often the trace was logged
+        String full = AkiStackTraces.appendFullTo(new StringBuilder(), "failed", exception).toString() ;
+
+        assertTrue(full.startsWith("failed\nException: java.lang.IllegalStateException\nMessage: boom\nStack trace:\n")) ;
+        assertTrue(full.contains("\tat " + AkiStackTracesTest.class.getName())) ;
+    }
+}
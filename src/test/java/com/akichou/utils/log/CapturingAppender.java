@@ -0,0 +1,61 @@
+package com.akichou.utils.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Property;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Test appender attached to the root logger, keeping an immutable copy of every event.
+ */
+final class CapturingAppender extends AbstractAppender implements AutoCloseable {
+
+    private final List<LogEvent> events = new CopyOnWriteArrayList<>() ;
+
+    private CapturingAppender(String name) {
+
+        super(name, null, null, true, Property.EMPTY_ARRAY) ;
+    }
+
+    static CapturingAppender attach(String name) {
+
+        CapturingAppender appender = new CapturingAppender(name) ;
+        appender.start() ;
+
+        LoggerContext loggerContext = (LoggerContext) LogManager.getContext(false) ;
+        Configuration configuration = loggerContext.getConfiguration() ;
+
+        configuration.addAppender(appender) ;
+        configuration.getRootLogger().addAppender(appender, null, null) ;
+        loggerContext.updateLoggers() ;
+
+        return appender ;
+    }
+
+    @Override
+    public void append(LogEvent event) {
+
+        events.add(event.toImmutable()) ;
+    }
+
+    List<LogEvent> getEvents() {
+
+        return events ;
+    }
+
+    @Override
+    public void close() {
+
+        LoggerContext loggerContext = (LoggerContext) LogManager.getContext(false) ;
+
+        loggerContext.getConfiguration().getRootLogger().removeAppender(getName()) ;
+        loggerContext.updateLoggers() ;
+
+        stop() ;
+    }
+}
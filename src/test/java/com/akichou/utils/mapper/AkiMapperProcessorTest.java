@@ -0,0 +1,210 @@
+package com.akichou.utils.mapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AkiMapperProcessorTest {
+
+    private static final String USER = """
+            package sample ;
+
+            public class User {
+
+                private String name ;
+                private int age ;
+                private boolean active ;
+
+                public String getName() { return name ; }
+                public void setName(String name) { this.name = name ; }
+                public int getAge() { return age ; }
+                public void setAge(int age) { this.age = age ; }
+                public boolean isActive() { return active ; }
+                public void setActive(boolean active) { this.active = active ; }
+            }
+            """ ;
+
+    // age is a String here : not assignable from int, so it must be left out
+    private static final String USER_DTO = """
+            package sample ;
+
+            public class UserDto {
+
+                private String name ;
+                private String age ;
+                private boolean active ;
+                private String nickname ;
+
+                public String getName() { return name ; }
+                public void setName(String name) { this.name = name ; }
+                public String getAge() { return age ; }
+                public void setAge(String age) { this.age = age ; }
+                public boolean isActive() { return active ; }
+                public void setActive(boolean active) { this.active = active ; }
+                public String getNickname() { return nickname ; }
+                public void setNickname(String nickname) { this.nickname = nickname ; }
+            }
+            """ ;
+
+    private static final String USER_RECORD = """
+            package sample ;
+
+            public record UserRecord(String name, int age, long missing) {}
+            """ ;
+
+    private static final String USER_MAPPER = """
+            package sample ;
+
+            @com.akichou.utils.mapper.AkiMapper
+            public interface UserMapper {
+
+                UserDto toDto(User user) ;
+
+                UserRecord toRecord(User user) ;
+
+                User fromRecord(UserRecord userRecord) ;
+            }
+            """ ;
+
+    @TempDir
+    Path directory ;
+
+    @Test
+    void generatedMapperCopiesBeansAndRecords() throws Exception {
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>() ;
+
+        assertTrue(compile(diagnostics, USER, USER_DTO, USER_RECORD, USER_MAPPER), diagnostics.getDiagnostics().toString()) ;
+
+        Path classes = directory.resolve("classes") ;
+
+        assertTrue(Files.exists(directory.resolve("generated/sample/UserMapperImpl.java"))) ;
+        assertEquals(List.of("sample.UserMapperImpl"),
+                     Files.readAllLines(classes.resolve("META-INF/services/" + AkiMapperRegistration.class.getName()))) ;
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classes.toUri().toURL() }, getClass().getClassLoader())) {
+
+            AkiMapperRegistration registration = (AkiMapperRegistration) classLoader.loadClass("sample.UserMapperImpl")
+                                                                                    .getConstructor()
+                                                                                    .newInstance() ;
+
+            Map<String, Function<Object, Object>> mappings = new HashMap<>() ;
+            registration.registerMappings(new AkiMapperRegistration.MappingSink() {
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public <S, T> void add(Class<S> sourceClass, Class<T> targetClass, Function<? super S, ? extends T> mapping) {
+
+                    mappings.put(sourceClass.getSimpleName() + "->" + targetClass.getSimpleName(), (Function<Object, Object>) mapping) ;
+                }
+            }) ;
+
+            assertEquals(Set.of("User->UserDto", "User->UserRecord", "UserRecord->User"), mappings.keySet()) ;
+
+            Object user = classLoader.loadClass("sample.User").getConstructor().newInstance() ;
+            invoke(user, "setName", String.class, "ann") ;
+            invoke(user, "setAge", int.class, 30) ;
+            invoke(user, "setActive", boolean.class, true) ;
+
+            Object userDto = mappings.get("User->UserDto").apply(user) ;
+
+            assertEquals("ann", invoke(userDto, "getName")) ;
+            assertEquals(true, invoke(userDto, "isActive")) ;
+            assertNull(invoke(userDto, "getAge")) ;
+            assertNull(invoke(userDto, "getNickname")) ;
+
+            Object userRecord = mappings.get("User->UserRecord").apply(user) ;
+
+            assertEquals("UserRecord[name=ann, age=30, missing=0]", userRecord.toString()) ;
+
+            Object copiedUser = mappings.get("UserRecord->User").apply(userRecord) ;
+
+            assertEquals("ann", invoke(copiedUser, "getName")) ;
+            assertEquals(30, invoke(copiedUser, "getAge")) ;
+            assertEquals(false, invoke(copiedUser, "isActive")) ;
+
+            assertNull(mappings.get("User->UserDto").apply(null)) ;
+        }
+    }
+
+    @Test
+    void annotatedClassIsReportedAsAnError() throws Exception {
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>() ;
+
+        assertFalse(compile(diagnostics, """
+                package sample ;
+
+                @com.akichou.utils.mapper.AkiMapper
+                public class NotAnInterface {}
+                """)) ;
+
+        assertTrue(diagnostics.getDiagnostics().stream()
+                              .anyMatch(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR
+                                                      && diagnostic.getMessage(null).contains("can only be placed on interfaces"))) ;
+    }
+
+    // Compile the sources with the processor, against the main classes (the classpath of the forked test JVM may be a manifest jar)
+    private boolean compile(DiagnosticCollector<JavaFileObject> diagnostics, String... sources) throws Exception {
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler() ;
+
+        Path sourceDirectory = Files.createDirectories(directory.resolve("src")) ;
+        Path classes = Files.createDirectories(directory.resolve("classes")) ;
+        Path generated = Files.createDirectories(directory.resolve("generated")) ;
+        Path mainClasses = Path.of(AkiMapper.class.getProtectionDomain().getCodeSource().getLocation().toURI()) ;
+
+        List<Path> sourceFiles = new ArrayList<>() ;
+        for (String source : sources) {
+
+            String typeName = source.replaceAll("(?s).*public (?:class|record|interface) (\\w+).*", "$1") ;
+
+            sourceFiles.add(Files.writeString(sourceDirectory.resolve(typeName + ".java"), source, StandardCharsets.UTF_8)) ;
+        }
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                                                                 List.of("-classpath", mainClasses.toString(),
+                                                                         "-d", classes.toString(),
+                                                                         "-s", generated.toString()),
+                                                                 null,
+                                                                 fileManager.getJavaFileObjectsFromPaths(sourceFiles)) ;
+            task.setProcessors(List.of(new AkiMapperProcessor())) ;
+
+            return task.call() ;
+        }
+    }
+
+    private static Object invoke(Object target, String methodName) throws Exception {
+
+        return target.getClass().getMethod(methodName).invoke(target) ;
+    }
+
+    private static void invoke(Object target, String methodName, Class<?> parameterType, Object argument) throws Exception {
+
+        target.getClass().getMethod(methodName, parameterType).invoke(target, argument) ;
+    }
+}
@@ -0,0 +1,608 @@
+package com.akichou.utils.util;
+
+import com.akichou.utils.exception.EntityCopyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AkiEntityCopyUtilTest {
+
+    @AfterEach
+    void resetCopyRules() {
+
+        AkiEntityCopyUtil.resetCopyRules() ;
+    }
+
+    @Test
+    void copyCreatesRecordTargetsThroughTheirConstructor() {
+
+        ItemRecord itemRecord = AkiEntityCopyUtil.copyEntity(item("pen", 3), ItemRecord.class) ;
+
+        assertEquals(new ItemRecord("pen", 3), itemRecord) ;
+    }
+
+    @Test
+    void copyIntoConstructorBasedTargetFails() {
+
+        CopyPlan<Item, ItemRecord> copyPlan = AkiEntityCopyUtil.planFor(Item.class, ItemRecord.class) ;
+
+        assertThrows(EntityCopyException.class, () -> copyPlan.copyInto(item("pen", 3), new ItemRecord("old", 0))) ;
+        assertThrows(EntityCopyException.class, () -> AkiEntityCopyUtil.copyEntity(item("pen", 3), new ItemRecord("old", 0))) ;
+    }
+
+    @Test
+    void beanWithAHiddenNoArgConstructorIsStillCopiedThroughItsSetters() {
+
+        LegacyItem legacyItem = AkiEntityCopyUtil.copyEntity(item("pen", 3), LegacyItem.class) ;
+
+        assertEquals("pen", legacyItem.getName()) ;
+        assertEquals(3, legacyItem.getQuantity()) ;
+
+        LegacyItem existing = new LegacyItem("old", 0) ;
+
+        assertSame(existing, AkiEntityCopyUtil.copyEntity(item("ink", 2), existing)) ;
+        assertEquals("ink", existing.getName()) ;
+        assertEquals(2, existing.getQuantity()) ;
+    }
+
+    @Test
+    void deepCopyIntoRecordCopiesConstructorArguments() {
+
+        Order order = new Order() ;
+        order.setItems(new ArrayList<>(List.of(item("pen", 3), item("ink", 1)))) ;
+        order.setShippedTo(item("box", 1)) ;
+        order.setCount(2) ;
+
+        OrderRecord orderRecord = AkiEntityCopyUtil.deepCopyEntity(order, OrderRecord.class) ;
+
+        // List<Item> is mapped onto List<ItemRecord>, not shared nor dropped
+        assertEquals(List.of(new ItemRecord("pen", 3), new ItemRecord("ink", 1)), orderRecord.items()) ;
+        assertEquals(new ItemRecord("box", 1), orderRecord.shippedTo()) ;
+        assertEquals(2, orderRecord.count()) ;
+        assertNull(orderRecord.note()) ;
+    }
+
+    @Test
+    void deepCopyOfRecordSharesNoMutableState() {
+
+        Item item = item("pen", 3) ;
+        Basket basket = new Basket(new ArrayList<>(List.of(item)), item) ;
+
+        Basket copy = AkiEntityCopyUtil.deepCopyEntity(basket, Basket.class) ;
+
+        assertNotSame(basket.items(), copy.items()) ;
+        assertNotSame(item, copy.items().get(0)) ;
+        assertNotSame(item, copy.favorite()) ;
+        assertEquals("pen", copy.favorite().getName()) ;
+        assertEquals(3, copy.items().get(0).getQuantity()) ;
+    }
+
+    @Test
+    void deepCopyOfACycleThroughARecordFails() {
+
+        Node node = new Node() ;
+        node.setNext(node) ;
+
+        EntityCopyException exception = assertThrows(EntityCopyException.class, () -> AkiEntityCopyUtil.deepCopyEntity(node, NodeRecord.class)) ;
+
+        assertInstanceOf(EntityCopyException.class, exception.getCause()) ;
+    }
+
+    @Test
+    void renameOfAMissingSourcePropertyFailsWhenThePlanIsBuilt() {
+
+        AkiEntityCopyUtil.registerMapping(CopyMapping.builder(Item.class, Label.class)
+                                                     .rename("title", "text")
+                                                     .build()) ;
+
+        EntityCopyException exception = assertThrows(EntityCopyException.class, () -> AkiEntityCopyUtil.planFor(Item.class, Label.class)) ;
+
+        assertTrue(exception.getMessage().contains("title")) ;
+    }
+
+    @Test
+    void registeredConverterCoversNonAssignablePropertiesOnly() {
+
+        AkiEntityCopyUtil.registerConverter(Long.class, String.class, id -> "#" + id) ;
+
+        TicketView ticketView = AkiEntityCopyUtil.copyEntity(ticket(7L, 2, 3), TicketView.class) ;
+
+        // Primitives and their wrappers are equivalent, other types are left alone
+        assertEquals("#7", ticketView.getId()) ;
+        assertEquals("#2", ticketView.getVersion()) ;
+        assertNull(ticketView.getSeats()) ;
+    }
+
+    @Test
+    void converterOfASuperclassAppliesUntilANearerOneIsRegistered() {
+
+        AkiEntityCopyUtil.registerConverter(Number.class, String.class, number -> "n" + number) ;
+
+        TicketView ticketView = AkiEntityCopyUtil.copyEntity(ticket(7L, 2, 3), TicketView.class) ;
+
+        assertEquals("n7", ticketView.getId()) ;
+        assertEquals("n2", ticketView.getVersion()) ;
+        assertEquals("n3", ticketView.getSeats()) ;
+
+        AkiEntityCopyUtil.registerConverter(Long.class, String.class, id -> "#" + id) ;
+
+        ticketView = AkiEntityCopyUtil.copyEntity(ticket(7L, 2, 3), TicketView.class) ;
+
+        assertEquals("#7", ticketView.getId()) ;
+        assertEquals("#2", ticketView.getVersion()) ;
+        assertEquals("n3", ticketView.getSeats()) ;
+    }
+
+    @Test
+    void registeringAConverterAgainReplacesItInCompiledPlans() {
+
+        AkiEntityCopyUtil.registerConverter(Long.class, String.class, id -> "old" + id) ;
+        assertEquals("old7", AkiEntityCopyUtil.copyEntity(ticket(7L, 2, 3), TicketView.class).getId()) ;
+
+        AkiEntityCopyUtil.registerConverter(Long.class, String.class, id -> "new" + id) ;
+        assertEquals("new7", AkiEntityCopyUtil.copyEntity(ticket(7L, 2, 3), TicketView.class).getId()) ;
+    }
+
+    @Test
+    void nullConvertedValueOfAPrimitivePropertyNamesIt() {
+
+        AkiEntityCopyUtil.registerMapping(CopyMapping.builder(Item.class, Counter.class)
+                                                     .rename("name", "value")
+                                                     .convert("value", (String name) -> null)
+                                                     .build()) ;
+        AkiEntityCopyUtil.registerMapping(CopyMapping.builder(Item.class, CounterRecord.class)
+                                                     .rename("name", "value")
+                                                     .convert("value", (String name) -> null)
+                                                     .build()) ;
+
+        EntityCopyException setterFailure = assertThrows(EntityCopyException.class,
+                                                         () -> AkiEntityCopyUtil.planFor(Item.class, Counter.class).copy(item("pen", 3))) ;
+        EntityCopyException constructorFailure = assertThrows(EntityCopyException.class,
+                                                              () -> AkiEntityCopyUtil.planFor(Item.class, CounterRecord.class).copy(item("pen", 3))) ;
+
+        assertTrue(setterFailure.getMessage().contains(Counter.class.getName() + ".value")) ;
+        assertTrue(constructorFailure.getMessage().contains(CounterRecord.class.getName() + ".value")) ;
+
+        // A null source value still leaves the default
+        assertEquals(new CounterRecord(0), AkiEntityCopyUtil.planFor(Item.class, CounterRecord.class).copy(item(null, 3))) ;
+    }
+
+    @Test
+    void generatedMappingOnlyReplacesCopy() {
+
+        assertEquals("mapped:pen", AkiEntityCopyUtil.copyEntity(item("pen", 3), MappedItem.class).getName()) ;
+
+        // Into an existing target the plan's property copiers still run
+        MappedItem existing = new MappedItem() ;
+        existing.setQuantity(7) ;
+
+        AkiEntityCopyUtil.copyEntity(item("ink", 1), existing) ;
+
+        assertEquals("ink", existing.getName()) ;
+        assertEquals(1, existing.getQuantity()) ;
+
+        List<String> names = new ArrayList<>() ;
+        AkiEntityCopyUtil.forEachCopied(List.of(item("a", 1), item("b", 2)), MappedItem::new, copy -> names.add(copy.getName())) ;
+
+        assertEquals(List.of("a", "b"), names) ;
+    }
+
+    @Test
+    void parallelCopyKeepsTheSourceOrder() throws Exception {
+
+        List<Item> items = new ArrayList<>() ;
+        for (int i = 0 ; i < AkiEntityCopyUtil.PARALLEL_THRESHOLD * 2 + 7 ; i ++) items.add(item("item" + i, i)) ;
+
+        ExecutorService executor = Executors.newFixedThreadPool(4) ;
+        try {
+
+            List<ItemRecord> commonPoolCopies = AkiEntityCopyUtil.copyEntityListParallel(items, ItemRecord.class) ;
+            List<ItemRecord> executorCopies = AkiEntityCopyUtil.copyEntityListParallel(items, ItemRecord.class, executor) ;
+
+            assertEquals(AkiEntityCopyUtil.copyEntityList(items, ItemRecord.class), commonPoolCopies) ;
+            assertEquals(commonPoolCopies, executorCopies) ;
+            assertEquals(new ItemRecord("item12345", 12345), executorCopies.get(12345)) ;
+        } finally {
+
+            executor.shutdownNow() ;
+        }
+    }
+
+    @Test
+    void streamingCopiesAreLazyAndOrdered() throws Exception {
+
+        List<Item> items = List.of(item("a", 1), item("b", 2), item("c", 3)) ;
+        List<ItemRecord> expected = List.of(new ItemRecord("a", 1), new ItemRecord("b", 2), new ItemRecord("c", 3)) ;
+
+        List<ItemRecord> iterated = new ArrayList<>() ;
+        AkiEntityCopyUtil.copyEntityIterator(items.iterator(), ItemRecord.class).forEachRemaining(iterated::add) ;
+
+        assertEquals(expected, iterated) ;
+        assertEquals(expected, AkiEntityCopyUtil.copyEntityStream(items.stream(), ItemRecord.class).toList()) ;
+
+        // Nothing is copied before the stream is consumed
+        int[] read = new int[1] ;
+        Stream<ItemRecord> lazy = AkiEntityCopyUtil.copyEntityStream(items.stream().peek(item -> read[0] ++), ItemRecord.class) ;
+
+        assertEquals(0, read[0]) ;
+        assertEquals(expected.subList(0, 1), lazy.limit(1).toList()) ;
+        assertEquals(1, read[0]) ;
+
+        List<ItemRecord> published = new ArrayList<>() ;
+        CompletableFuture<Void> completed = new CompletableFuture<>() ;
+
+        try (SubmissionPublisher<Item> publisher = new SubmissionPublisher<>()) {
+
+            AkiEntityCopyUtil.copyEntityPublisher(publisher, ItemRecord.class).subscribe(new Flow.Subscriber<>() {
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+
+                    subscription.request(Long.MAX_VALUE) ;
+                }
+
+                @Override
+                public void onNext(ItemRecord itemRecord) {
+
+                    published.add(itemRecord) ;
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+
+                    completed.completeExceptionally(throwable) ;
+                }
+
+                @Override
+                public void onComplete() {
+
+                    completed.complete(null) ;
+                }
+            }) ;
+
+            items.forEach(publisher::submit) ;
+        }
+
+        completed.get(10, TimeUnit.SECONDS) ;
+        assertEquals(expected, published) ;
+    }
+
+    @Test
+    void deepCopyOfBeansResolvesCyclesToTheirCopies() {
+
+        Node first = new Node() ;
+        Node second = new Node() ;
+        first.setNext(second) ;
+        second.setNext(first) ;
+
+        Node copy = AkiEntityCopyUtil.deepCopyEntity(first, Node.class) ;
+
+        assertNotSame(first, copy) ;
+        assertNotSame(second, copy.getNext()) ;
+        assertSame(copy, copy.getNext().getNext()) ;
+    }
+
+    @Test
+    void deepCopyFailsBeyondTheMaximumDepth() {
+
+        Node head = new Node() ;
+        Node node = head ;
+        for (int i = 0 ; i < 10 ; i ++) {
+
+            node.setNext(new Node()) ;
+            node = node.getNext() ;
+        }
+
+        assertThrows(EntityCopyException.class, () -> AkiEntityCopyUtil.deepCopyEntity(head, Node.class, 5)) ;
+        assertNotSame(head, AkiEntityCopyUtil.deepCopyEntity(head, Node.class, 20)) ;
+    }
+
+    @Test
+    void planForCompilesEachPairOnce() {
+
+        CopyPlan<Item, MappedItem> copyPlan = AkiEntityCopyUtil.planFor(Item.class, MappedItem.class) ;
+        CopyPlanStats before = AkiEntityCopyUtil.getCopyPlanStats() ;
+
+        assertSame(copyPlan, AkiEntityCopyUtil.planFor(Item.class, MappedItem.class)) ;
+
+        CopyPlanStats after = AkiEntityCopyUtil.getCopyPlanStats() ;
+
+        assertEquals(before.compiledCount(), after.compiledCount()) ;
+        assertTrue(after.hitCount() > before.hitCount()) ;
+        assertEquals(2, copyPlan.getPropertyCount()) ;
+    }
+
+    @Test
+    void forEachCopiedReusesOnePooledTarget() {
+
+        List<Item> targets = new ArrayList<>() ;
+        List<String> names = new ArrayList<>() ;
+
+        AkiEntityCopyUtil.forEachCopied(List.of(item("pen", 1), item("ink", 2)), Item.class, copy -> {
+
+            targets.add(copy) ;
+            names.add(copy.getName() + copy.getQuantity()) ;
+        }) ;
+
+        assertEquals(List.of("pen1", "ink2"), names) ;
+        assertSame(targets.get(0), targets.get(1)) ;
+    }
+
+    @Test
+    void bulkCopyCollectsFailuresByIndex() {
+
+        List<Fragile> sources = List.of(new Fragile("a"), new Fragile(null), new Fragile("c"), new Fragile(null)) ;
+
+        CopyResult<Item> copyResult = AkiEntityCopyUtil.bulkCopyEntityList(sources, Item.class) ;
+
+        assertTrue(copyResult.hasFailures()) ;
+        assertEquals(2, copyResult.getSuccessCount()) ;
+        assertArrayEquals(new int[] { 1, 3 }, copyResult.getFailedIndexes()) ;
+        assertInstanceOf(IllegalStateException.class, copyResult.getFailureCause(0)) ;
+
+        assertEquals("a", copyResult.getCopies().get(0).getName()) ;
+        assertNull(copyResult.getCopies().get(1)) ;
+        assertEquals(List.of("a", "c"), copyResult.getSuccessfulCopies().stream().map(Item::getName).toList()) ;
+    }
+
+    static Ticket ticket(Long id, long version, Integer seats) {
+
+        Ticket ticket = new Ticket() ;
+        ticket.setId(id) ;
+        ticket.setVersion(version) ;
+        ticket.setSeats(seats) ;
+
+        return ticket ;
+    }
+
+    static Item item(String name, int quantity) {
+
+        Item item = new Item() ;
+        item.setName(name) ;
+        item.setQuantity(quantity) ;
+
+        return item ;
+    }
+
+    public static class Item {
+
+        private String name ;
+        private int quantity ;
+
+        public String getName() {
+
+            return name ;
+        }
+
+        public void setName(String name) {
+
+            this.name = name ;
+        }
+
+        public int getQuantity() {
+
+            return quantity ;
+        }
+
+        public void setQuantity(int quantity) {
+
+            this.quantity = quantity ;
+        }
+    }
+
+    public record ItemRecord(String name, int quantity) {}
+
+    public static class Ticket {
+
+        private Long id ;
+        private long version ;
+        private Integer seats ;
+
+        public Long getId() {
+
+            return id ;
+        }
+
+        public void setId(Long id) {
+
+            this.id = id ;
+        }
+
+        public long getVersion() {
+
+            return version ;
+        }
+
+        public void setVersion(long version) {
+
+            this.version = version ;
+        }
+
+        public Integer getSeats() {
+
+            return seats ;
+        }
+
+        public void setSeats(Integer seats) {
+
+            this.seats = seats ;
+        }
+    }
+
+    public static class TicketView {
+
+        private String id ;
+        private String version ;
+        private String seats ;
+
+        public String getId() {
+
+            return id ;
+        }
+
+        public void setId(String id) {
+
+            this.id = id ;
+        }
+
+        public String getVersion() {
+
+            return version ;
+        }
+
+        public void setVersion(String version) {
+
+            this.version = version ;
+        }
+
+        public String getSeats() {
+
+            return seats ;
+        }
+
+        public void setSeats(String seats) {
+
+            this.seats = seats ;
+        }
+    }
+
+    // Protected no-arg constructor for frameworks, public all-args one for callers
+    public static class LegacyItem extends Item {
+
+        protected LegacyItem() {}
+
+        public LegacyItem(String name, int quantity) {
+
+            setName(name) ;
+            setQuantity(quantity) ;
+        }
+    }
+
+    public static class MappedItem extends Item {}
+
+    public static class Order {
+
+        private List<Item> items ;
+        private Item shippedTo ;
+        private int count ;
+
+        public List<Item> getItems() {
+
+            return items ;
+        }
+
+        public void setItems(List<Item> items) {
+
+            this.items = items ;
+        }
+
+        public Item getShippedTo() {
+
+            return shippedTo ;
+        }
+
+        public void setShippedTo(Item shippedTo) {
+
+            this.shippedTo = shippedTo ;
+        }
+
+        public int getCount() {
+
+            return count ;
+        }
+
+        public void setCount(int count) {
+
+            this.count = count ;
+        }
+    }
+
+    public record OrderRecord(List<ItemRecord> items, ItemRecord shippedTo, int count, String note) {}
+
+    public record Basket(List<Item> items, Item favorite) {}
+
+    public static class Node {
+
+        private Node next ;
+
+        public Node getNext() {
+
+            return next ;
+        }
+
+        public void setNext(Node next) {
+
+            this.next = next ;
+        }
+    }
+
+    public record NodeRecord(NodeRecord next) {}
+
+    public static class Label {
+
+        private String text ;
+
+        public String getText() {
+
+            return text ;
+        }
+
+        public void setText(String text) {
+
+            this.text = text ;
+        }
+    }
+
+    public static class Counter {
+
+        private int value ;
+
+        public int getValue() {
+
+            return value ;
+        }
+
+        public void setValue(int value) {
+
+            this.value = value ;
+        }
+    }
+
+    public record CounterRecord(int value) {}
+
+    // Getter failing on a null name, to make single elements fail
+    public static class Fragile {
+
+        private final String name ;
+
+        Fragile(String name) {
+
+            this.name = name ;
+        }
+
+        public String getName() {
+
+            if (name == null) throw new IllegalStateException("No name") ;
+
+            return name ;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.akichou.utils.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AkiMultiMatcherTest {
+
+    @Test
+    void singlePatternCountsLikeCountMatch() {
+
+        Random random = new Random(7) ;
+
+        for (int i = 0 ; i < 2_000 ; i ++) {
+
+            String text = AkiSplitterTest.randomString(random, "abc", 1 + random.nextInt(40)) ;
+            String pattern = AkiSplitterTest.randomString(random, "abc", 1 + random.nextInt(3)) ;
+
+            AkiMultiMatcher matcher = AkiMultiMatcher.of(pattern) ;
+
+            assertEquals(AkiStringUtil.countMatch(text, pattern), matcher.count(text), text + " / " + pattern) ;
+            assertEquals(AkiStringUtil.countMatch(text, pattern), AkiStringUtil.countMatch(text, matcher), text + " / " + pattern) ;
+            assertEquals(text.contains(pattern), AkiStringUtil.containsAny(text, matcher)) ;
+        }
+    }
+
+    @Test
+    void ignoreCaseCountsLikeCountMatchIgnoreCase() {
+
+        Random random = new Random(11) ;
+
+        for (int i = 0 ; i < 2_000 ; i ++) {
+
+            String text = AkiSplitterTest.randomString(random, "aAbB", 1 + random.nextInt(40)) ;
+            String pattern = AkiSplitterTest.randomString(random, "aAbB", 1 + random.nextInt(3)) ;
+
+            AkiMultiMatcher matcher = AkiMultiMatcher.builder().add(pattern).ignoreCase(true).build() ;
+
+            assertEquals(AkiStringUtil.countMatchIgnoreCase(text, pattern), matcher.count(text), text + " / " + pattern) ;
+        }
+    }
+
+    @Test
+    void nonOverlappingMatchesPreferTheLongestPattern() {
+
+        AkiMultiMatcher matcher = AkiMultiMatcher.of("he", "she", "his", "hers") ;
+
+        List<AkiMultiMatcher.Match> matches = matcher.findAll("ushers") ;
+
+        assertEquals(1, matches.size()) ;
+        assertEquals("she", matches.get(0).getPattern()) ;
+        assertEquals(1, matches.get(0).getStart()) ;
+        assertEquals(4, matches.get(0).getEnd()) ;
+    }
+
+    @Test
+    void overlappingModeReportsEveryOccurrence() {
+
+        AkiMultiMatcher matcher = AkiMultiMatcher.builder().addAll(List.of("he", "she", "his", "hers")).overlapping(true).build() ;
+
+        assertEquals(List.of("she[1, 4)", "he[2, 4)", "hers[2, 6)"), matcher.findAll("ushers").stream().map(Object::toString).toList()) ;
+        assertEquals(2, AkiMultiMatcher.builder().add("aa").overlapping(true).build().count("aaa")) ;
+        assertEquals(1, AkiMultiMatcher.of("aa").count("aaa")) ;
+    }
+
+    @Test
+    void replacesAndDetectsMatches() {
+
+        AkiMultiMatcher matcher = AkiMultiMatcher.builder().addAll(List.of("foo", "BAR")).ignoreCase(true).build() ;
+
+        assertEquals("*** and ***, baz", matcher.replaceAll("Foo and bar, baz", "***")) ;
+        assertEquals("[foo] and [BAR]", matcher.replaceAll("foo and bar", pattern -> "[" + pattern + "]")) ;
+        assertEquals("nothing here", matcher.replaceAll("nothing here", "***")) ;
+
+        assertTrue(matcher.containsAny("xxFOOxx")) ;
+        assertFalse(matcher.containsAny("fo ba")) ;
+        assertFalse(AkiStringUtil.containsAny(null, matcher)) ;
+    }
+
+    @Test
+    void rejectsInvalidPatterns() {
+
+        assertThrows(IllegalArgumentException.class, () -> AkiMultiMatcher.builder().build()) ;
+        assertThrows(IllegalArgumentException.class, () -> AkiMultiMatcher.of("")) ;
+        assertThrows(IllegalArgumentException.class, () -> AkiMultiMatcher.of("a").count(null)) ;
+    }
+}
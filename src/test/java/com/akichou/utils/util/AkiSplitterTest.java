@@ -0,0 +1,102 @@
+package com.akichou.utils.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AkiSplitterTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "aa--bb---cc----dd   | --",
+            "aa--bb---cc----dd   | ---",
+            "'  --aa--bb--  '    | --",
+            "a,b,,c,             | ,",
+            "no separator        | ;",
+            "''                  | ,",
+            "'   '               | ,",
+            "abcabcab            | abc",
+            "x::y:::z::::        | ::"
+    })
+    void splitsLikeSplitBy(String input, String separator) {
+
+        AkiSplitter splitter = AkiSplitter.on(separator) ;
+
+        assertArrayEquals(AkiStringUtil.splitBy(input, separator), splitter.splitToArray(input)) ;
+
+        for (int limit = 1 ; limit <= 5 ; limit ++) {
+
+            assertArrayEquals(AkiStringUtil.splitBy(input, separator, limit), splitter.limit(limit).splitToArray(input)) ;
+        }
+    }
+
+    @Test
+    void everyViewGivesTheSamePieces() {
+
+        AkiSplitter splitter = AkiSplitter.on("--") ;
+        String input = " aa--bb---cc----dd " ;
+
+        String[] expected = AkiStringUtil.splitBy(input, "--") ;
+
+        List<String> ranges = new ArrayList<>() ;
+        int count = splitter.split(input, (source, start, end) -> ranges.add(source.subSequence(start, end).toString())) ;
+
+        List<String> cursorPieces = new ArrayList<>() ;
+        AkiSplitter.Cursor cursor = splitter.cursor(input) ;
+        while (cursor.next()) {
+
+            assertEquals(cursor.current().toString(), input.substring(cursor.start(), cursor.end())) ;
+            cursorPieces.add(cursor.current().toString()) ;
+        }
+
+        List<String> iterablePieces = new ArrayList<>() ;
+        for (CharSequence piece : splitter.split(input)) iterablePieces.add(piece.toString()) ;
+
+        assertEquals(expected.length, count) ;
+        assertEquals(List.of(expected), ranges) ;
+        assertEquals(List.of(expected), cursorPieces) ;
+        assertEquals(List.of(expected), iterablePieces) ;
+    }
+
+    @Test
+    void matchesSplitByOnRandomInputs() {
+
+        Random random = new Random(42) ;
+        String[] separators = { "-", "--", "-a-", "ab", "aba" } ;
+
+        for (int i = 0 ; i < 2_000 ; i ++) {
+
+            String input = randomString(random, "ab- ", random.nextInt(30)) ;
+            String separator = separators[random.nextInt(separators.length)] ;
+            int limit = 1 + random.nextInt(6) ;
+
+            assertArrayEquals(AkiStringUtil.splitBy(input, separator), AkiSplitter.on(separator).splitToArray(input), input) ;
+            assertArrayEquals(AkiStringUtil.splitBy(input, separator, limit), AkiSplitter.on(separator).limit(limit).splitToArray(input), input) ;
+        }
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+
+        assertThrows(IllegalArgumentException.class, () -> AkiSplitter.on("")) ;
+        assertThrows(IllegalArgumentException.class, () -> AkiSplitter.on(",").limit(0)) ;
+        assertThrows(IllegalArgumentException.class, () -> AkiSplitter.on(",").splitToArray(null)) ;
+    }
+
+    static String randomString(Random random, String alphabet, int length) {
+
+        StringBuilder stringBuilder = new StringBuilder(length) ;
+
+        for (int i = 0 ; i < length ; i ++) stringBuilder.append(alphabet.charAt(random.nextInt(alphabet.length()))) ;
+
+        return stringBuilder.toString() ;
+    }
+}
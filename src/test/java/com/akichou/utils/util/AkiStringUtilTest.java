@@ -0,0 +1,131 @@
+package com.akichou.utils.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AkiStringUtilTest {
+
+    // Letters, digits, every \s char, a non-ASCII letter and digit, punctuation
+    private static final String MIXED_ALPHABET = "aZ09 \t\n\u000B\f\ré٣-." ;
+
+    @Test
+    void charLoopsMatchTheRegexesTheyReplaced() {
+
+        Random random = new Random(3) ;
+
+        for (int i = 0 ; i < 5_000 ; i ++) {
+
+            String input = AkiSplitterTest.randomString(random, MIXED_ALPHABET, random.nextInt(8)) ;
+            boolean blank = input.trim().isEmpty() ;
+
+            assertEquals(!blank && input.matches("[a-zA-Z\\s]+"), AkiStringUtil.isAllAlphaSpace(input), input) ;
+            assertEquals(!blank && input.matches("[0-9\\s]+"), AkiStringUtil.isAllNumberSpace(input), input) ;
+            assertEquals(blank ? input : input.replaceAll("\\s", ""), AkiStringUtil.trimAll(input), input) ;
+        }
+    }
+
+    @Test
+    void replaceFirstLiteralIgnoresRegexSyntax() {
+
+        assertEquals("a$1c.c.b.c", AkiStringUtil.replaceFirstLiteral("a.b.c.b.c", ".b", "$1c")) ;
+        assertEquals("a.b", AkiStringUtil.replaceFirstLiteral("a.b", "x", "y")) ;
+        assertEquals("x(y", AkiStringUtil.replaceFirstLiteral("((y", "(", "x")) ;
+
+        assertEquals("a-b.c", AkiStringUtil.replaceFirstChar("a.b.c", '.', '-')) ;
+        assertEquals("abc", AkiStringUtil.removeAll("a.b.c.", '.')) ;
+    }
+
+    @Test
+    void replaceFirstStringKeepsRegexSemantics() {
+
+        assertEquals("a.b.c.b.c".replaceFirst(".b", "[$0]"), AkiStringUtil.replaceFirstString("a.b.c.b.c", ".b", "[$0]")) ;
+        assertEquals("b-a", AkiStringUtil.replaceFirstString("a-b", "(\\w)-(\\w)", "$2-$1")) ;
+
+        // Cached pattern, another target
+        assertEquals("b-a c-d", AkiStringUtil.replaceFirstString("a-b c-d", "(\\w)-(\\w)", "$2-$1")) ;
+    }
+
+    @Test
+    void scalarKernelsMatchNaiveLoops() {
+
+        Random random = new Random(5) ;
+
+        for (int i = 0 ; i < 5_000 ; i ++) {
+
+            String input = AkiSplitterTest.randomString(random, "aAbB09 \u0130\u0131é٣", random.nextInt(12)) ;
+            char chara = "aAbB\u0130".charAt(random.nextInt(5)) ;
+
+            assertArrayEquals(naiveIndexesOf(input, chara), AkiStringUtil.getIndexesByChar(input, chara), input) ;
+            assertEquals(naiveRemoveAllIgnoreCase(input, chara), AkiStringUtil.removeAllIgnoreCase(input, chara), input) ;
+
+            boolean blank = input.trim().isEmpty() ;
+
+            assertEquals(!blank && input.chars().allMatch(Character::isDigit), AkiStringUtil.isAllNumber(input), input) ;
+            assertEquals(!blank && input.chars().allMatch(Character::isUpperCase), AkiStringUtil.isAllUpperCase(input), input) ;
+            assertEquals(!blank && input.chars().allMatch(Character::isLowerCase), AkiStringUtil.isAllLowerCase(input), input) ;
+        }
+    }
+
+    @Test
+    void ignoreCaseSearchFollowsEqualsIgnoreCase() {
+
+        Random random = new Random(9) ;
+
+        for (int i = 0 ; i < 5_000 ; i ++) {
+
+            String input = AkiSplitterTest.randomString(random, "aAbB@`[{\u0130i\u0131I", random.nextInt(12)) ;
+            String substring = AkiSplitterTest.randomString(random, "aAbB@`\u0130iI", 1 + random.nextInt(2)) ;
+
+            int expected = naiveIndexOfIgnoreCase(input, substring) ;
+
+            assertEquals(expected, AkiStringUtil.indexOfIgnoreCase(input, substring), input + " / " + substring) ;
+            assertEquals(expected != -1, AkiStringUtil.containsIgnoreCase(input, substring), input + " / " + substring) ;
+        }
+
+        // '@' and '`' only differ by the case bit, they are not letters
+        assertEquals(-1, AkiStringUtil.indexOfIgnoreCase("@", "`")) ;
+        assertEquals(2, AkiStringUtil.countMatchIgnoreCase("AbabX", "AB")) ;
+        assertEquals("xbc", AkiStringUtil.removeFirstIgnoreCase("xAbc", 'a')) ;
+    }
+
+    @Test
+    void isBlankFollowsTrim() {
+
+        for (String input : new String[] { null, "", " ", "\t\n", "\u0000 ", " a ", "\u00A0" }) {
+
+            assertEquals(input == null || input.trim().isEmpty(), AkiStringUtil.isBlank(input), String.valueOf(input)) ;
+        }
+    }
+
+    private static int naiveIndexOfIgnoreCase(String input, String substring) {
+
+        for (int i = 0 ; i + substring.length() <= input.length() ; i ++) {
+
+            if (input.substring(i, i + substring.length()).equalsIgnoreCase(substring)) return i ;
+        }
+
+        return -1 ;
+    }
+
+    private static int[] naiveIndexesOf(String input, char chara) {
+
+        return IntStream.range(0, input.length()).filter(i -> input.charAt(i) == chara).toArray() ;
+    }
+
+    private static String naiveRemoveAllIgnoreCase(String input, char chara) {
+
+        StringBuilder stringBuilder = new StringBuilder() ;
+
+        for (char c : input.toCharArray()) {
+
+            if (c != Character.toLowerCase(chara) && c != Character.toUpperCase(chara)) stringBuilder.append(c) ;
+        }
+
+        return stringBuilder.toString() ;
+    }
+}
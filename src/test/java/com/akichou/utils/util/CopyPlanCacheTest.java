@@ -0,0 +1,51 @@
+package com.akichou.utils.util;
+
+import com.akichou.utils.util.AkiEntityCopyUtilTest.Item;
+import com.akichou.utils.util.AkiEntityCopyUtilTest.MappedItem;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CopyPlanCacheTest {
+
+    @Test
+    void statsCountOnAcrossRuleChanges() {
+
+        CopyPlanCache copyPlanCache = new CopyPlanCache(CopyRules.EMPTY) ;
+
+        CopyPlan<Item, MappedItem> copyPlan = copyPlanCache.get(Item.class, MappedItem.class) ;
+        assertSame(copyPlan, copyPlanCache.get(Item.class, MappedItem.class)) ;
+        assertEquals(new CopyPlanStats(1, 1), copyPlanCache.stats()) ;
+
+        CopyPlanCache rebuilt = copyPlanCache.withCopyRules(CopyRules.EMPTY.withConverter(Long.class, String.class, String::valueOf)) ;
+
+        assertNotSame(copyPlan, rebuilt.get(Item.class, MappedItem.class)) ;
+        assertEquals(new CopyPlanStats(1, 2), rebuilt.stats()) ;
+    }
+
+    @Test
+    void replacedCacheIsReleased() throws InterruptedException {
+
+        CopyPlanCache copyPlanCache = new CopyPlanCache(CopyRules.EMPTY) ;
+        copyPlanCache.get(Item.class, MappedItem.class) ;
+
+        WeakReference<CopyPlanCache> replaced = new WeakReference<>(copyPlanCache) ;
+
+        copyPlanCache = copyPlanCache.withCopyRules(CopyRules.EMPTY) ;
+
+        // Both classes stay loaded, the values the replaced cache left on them must not pin it
+        for (int i = 0 ; i < 50 && replaced.get() != null ; i ++) {
+
+            System.gc() ;
+            Thread.sleep(20) ;
+        }
+
+        assertNull(replaced.get()) ;
+        assertEquals(1, copyPlanCache.stats().compiledCount()) ;
+    }
+}
@@ -0,0 +1,25 @@
+package com.akichou.utils.util;
+
+import com.akichou.utils.mapper.AkiMapperRegistration;
+
+/**
+ * Hand-written stand-in for a generated mapper, registered in the test META-INF/services.
+ * Marks its copies, so tests can tell them from the ones of the compiled plans.
+ */
+public class TestMapperRegistration implements AkiMapperRegistration {
+
+    static final String MAPPED_MARKER = "mapped:" ;
+
+    @Override
+    public void registerMappings(MappingSink mappingSink) {
+
+        mappingSink.add(AkiEntityCopyUtilTest.Item.class, AkiEntityCopyUtilTest.MappedItem.class, item -> {
+
+            AkiEntityCopyUtilTest.MappedItem mappedItem = new AkiEntityCopyUtilTest.MappedItem() ;
+            mappedItem.setName(MAPPED_MARKER + item.getName()) ;
+            mappedItem.setQuantity(item.getQuantity()) ;
+
+            return mappedItem ;
+        }) ;
+    }
+}